@@ -30,6 +30,12 @@ public class CadastroClienteGUI {
 
     private static int idSelecionado = -1; // Variável para armazenar o ID do cliente selecionado para edição/exclusão.
     // -1 indica que nenhum cliente está selecionado.
+    private static long versaoSelecionada = -1; // Versão do cliente no momento em que foi carregado para edição
+
+    private static final String TITULO = "Cadastro de Cliente"; // Título da janela
+    private static final int TIMEOUT_BANCO_SEGUNDOS = 5;        // Tempo máximo de espera por conexão e por consulta
+    private static boolean carregando;       // Há uma carga da tabela em andamento (acessado só na thread da interface)
+    private static boolean recarregarDepois; // Uma alteração pediu nova carga enquanto outra estava em andamento
 
     /**
      * Método principal que inicia a aplicação GUI.
@@ -45,7 +51,9 @@ public class CadastroClienteGUI {
         UIManager.put("ScrollBar.thumbShadow", new ColorUIResource(new Color(70, 70, 70)));   // Sombra do polegar
 
         // --- Configuração da Janela Principal (JFrame) ---
-        frame = new JFrame("Cadastro de Cliente");            // Cria uma nova janela com o título "Cadastro de Cliente"
+        DriverManager.setLoginTimeout(TIMEOUT_BANCO_SEGUNDOS); // Falha rápido se o banco não aceitar conexões
+
+        frame = new JFrame(TITULO);                           // Cria uma nova janela com o título "Cadastro de Cliente"
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE); // Define a operação padrão ao fechar a janela (sair da aplicação)
         frame.setSize(700, 600);                              // Define o tamanho da janela (largura, altura)
         frame.setLocationRelativeTo(null);                    // Centraliza a janela na tela
@@ -151,8 +159,8 @@ public class CadastroClienteGUI {
         panel.add(botoesPanel, gbc);                  // Adiciona o painel de botões ao painel principal
 
         // --- Tabela para Exibir Clientes ---
-        // Cria o modelo de tabela com as colunas "ID", "Nome", "Telefone", "Email"
-        tabelaModel = new DefaultTableModel(new Object[]{"ID", "Nome", "Telefone", "Email"}, 0) {
+        // Cria o modelo de tabela com as colunas "ID", "Nome", "Telefone", "Email" e a "Versão" (oculta)
+        tabelaModel = new DefaultTableModel(new Object[]{"ID", "Nome", "Telefone", "Email", "Versão"}, 0) {
             @Override
             public boolean isCellEditable(int row, int column) {
                 return false; // Torna todas as células da tabela não editáveis (somente leitura)
@@ -161,6 +169,7 @@ public class CadastroClienteGUI {
         tabelaClientes = new JTable(tabelaModel);               // Cria a JTable usando o modelo de tabela
         tabelaClientes.setSelectionMode(ListSelectionModel.SINGLE_SELECTION); // Permite selecionar apenas uma linha por vez
         tabelaClientes.getColumnModel().getColumn(0).setPreferredWidth(50); // Define a largura preferida para a coluna "ID"
+        tabelaClientes.removeColumn(tabelaClientes.getColumnModel().getColumn(4)); // Oculta a coluna "Versão" (continua no modelo)
 
         // Cores personalizadas para a tabela
         Color fundoEscuro = new Color(43, 43, 43);      // Cor de fundo escura para as células
@@ -222,8 +231,10 @@ public class CadastroClienteGUI {
 
         // Bloco try-with-resources para garantir que a conexão seja fechada automaticamente
         try (Connection conn = DriverManager.getConnection(URL, USER, PASSWORD)) {
+            if (emailArquivado(conn, email, -1)) return; // O email já é de um cliente arquivado
+
             // SQL para inserção de um novo cliente
-            String sql = "INSERT INTO cliente (nome, telefone, email) VALUES (?, ?, ?)";
+            String sql = "INSERT INTO cliente (nome, telefone, email, versao) VALUES (?, ?, ?, 0)";
             PreparedStatement stmt = conn.prepareStatement(sql); // Cria um PreparedStatement para evitar SQL Injection
             stmt.setString(1, nome);      // Define o valor do primeiro placeholder (?) como o nome
             stmt.setString(2, telefone);  // Define o valor do segundo placeholder (?) como o telefone
@@ -247,31 +258,66 @@ public class CadastroClienteGUI {
 
     /**
      * Método para carregar todos os clientes do banco de dados e exibi-los na tabela.
+     * A consulta roda fora da thread da interface (SwingWorker), com tempo máximo de espera:
+     * se o banco estiver lento ou fora do ar, a janela continua respondendo e a tabela mantém
+     * os últimos dados carregados, com um aviso de que podem estar desatualizados.
      */
     private static void carregarClientes() {
-        tabelaModel.setRowCount(0); // Limpa todas as linhas existentes na tabela antes de recarregar
+        if (carregando) { // Já há uma carga em andamento: recarrega de novo quando ela terminar
+            recarregarDepois = true;
+            return;
+        }
+        carregando = true;
 
-        // Bloco try-with-resources para garantir que a conexão seja fechada automaticamente
-        try (Connection conn = DriverManager.getConnection(URL, USER, PASSWORD)) {
-            // SQL para selecionar todos os clientes
-            String sql = "SELECT id_cliente, nome, telefone, email FROM cliente";
-            Statement stmt = conn.createStatement();      // Cria um Statement para executar a consulta
-            ResultSet rs = stmt.executeQuery(sql);        // Executa a consulta e obtém o ResultSet
-
-            // Itera sobre o ResultSet e adiciona cada cliente ao modelo da tabela
-            while (rs.next()) {
-                int id = rs.getInt("id_cliente");           // Obtém o ID do cliente
-                String nome = rs.getString("nome");         // Obtém o nome do cliente
-                String telefone = rs.getString("telefone"); // Obtém o telefone do cliente
-                String email = rs.getString("email");       // Obtém o email do cliente
-                tabelaModel.addRow(new Object[]{id, nome, telefone, email}); // Adiciona uma nova linha à tabela
+        new SwingWorker<java.util.List<Object[]>, Void>() {
+            @Override
+            protected java.util.List<Object[]> doInBackground() throws SQLException {
+                java.util.List<Object[]> linhas = new java.util.ArrayList<>();
+                // Bloco try-with-resources para garantir que a conexão seja fechada automaticamente
+                try (Connection conn = DriverManager.getConnection(URL, USER, PASSWORD);
+                     Statement stmt = conn.createStatement()) { // Cria um Statement para executar a consulta
+                    stmt.setQueryTimeout(TIMEOUT_BANCO_SEGUNDOS); // Não espera indefinidamente por um banco travado
+                    // SQL para selecionar todos os clientes
+                    ResultSet rs = stmt.executeQuery("SELECT id_cliente, nome, telefone, email, versao FROM cliente");
+
+                    // Itera sobre o ResultSet e guarda cada cliente para exibir na tabela
+                    while (rs.next()) {
+                        int id = rs.getInt("id_cliente");           // Obtém o ID do cliente
+                        String nome = rs.getString("nome");         // Obtém o nome do cliente
+                        String telefone = rs.getString("telefone"); // Obtém o telefone do cliente
+                        String email = rs.getString("email");       // Obtém o email do cliente
+                        long versao = rs.getLong("versao");         // Obtém a versão do cliente (controle de concorrência)
+                        linhas.add(new Object[]{id, nome, telefone, email, versao});
+                    }
+                }
+                return linhas;
             }
-        } catch (SQLException ex) {
-            // Captura e exibe qualquer erro de SQL que ocorra
-            JOptionPane.showMessageDialog(frame,
-                    "Erro ao carregar clientes:\n" + ex.getMessage(),
-                    "Erro", JOptionPane.ERROR_MESSAGE);
-        }
+
+            @Override
+            protected void done() { // Executado de volta na thread da interface
+                carregando = false;
+                try {
+                    java.util.List<Object[]> linhas = get();
+                    tabelaModel.setRowCount(0); // Só limpa a tabela quando os dados novos já chegaram
+                    for (Object[] linha : linhas) tabelaModel.addRow(linha);
+                    frame.setTitle(TITULO);
+                } catch (InterruptedException | java.util.concurrent.ExecutionException ex) {
+                    Throwable causa = ex.getCause() != null ? ex.getCause() : ex;
+                    if (tabelaModel.getRowCount() > 0) {
+                        // Mantém os últimos dados e avisa no título, sem abrir uma janela de erro a cada tentativa
+                        frame.setTitle(TITULO + " (dados desatualizados: banco indisponível)");
+                    } else {
+                        JOptionPane.showMessageDialog(frame,
+                                "Erro ao carregar clientes:\n" + causa.getMessage(),
+                                "Erro", JOptionPane.ERROR_MESSAGE);
+                    }
+                }
+                if (recarregarDepois) {
+                    recarregarDepois = false;
+                    carregarClientes();
+                }
+            }
+        }.execute();
     }
 
     /**
@@ -289,6 +335,7 @@ public class CadastroClienteGUI {
         String nome = (String) tabelaModel.getValueAt(linhaSelecionada, 1);     // Nome do cliente (coluna 1)
         String telefone = (String) tabelaModel.getValueAt(linhaSelecionada, 2); // Telefone do cliente (coluna 2)
         String email = (String) tabelaModel.getValueAt(linhaSelecionada, 3);    // Email do cliente (coluna 3)
+        versaoSelecionada = (long) tabelaModel.getValueAt(linhaSelecionada, 4); // Versão do cliente (coluna 4, oculta)
 
         // Preenche os campos de texto com os dados do cliente selecionado
         nomeField.setText(nome);
@@ -334,14 +381,24 @@ public class CadastroClienteGUI {
 
         // Bloco try-with-resources para garantir que a conexão seja fechada automaticamente
         try (Connection conn = DriverManager.getConnection(URL, USER, PASSWORD)) {
-            // SQL para atualização de um cliente
-            String sql = "UPDATE cliente SET nome = ?, telefone = ?, email = ? WHERE id_cliente = ?";
+            if (emailArquivado(conn, email, idSelecionado)) return; // O email já é de outro cliente arquivado
+
+            // SQL para atualização condicional: só grava se a versão ainda for a que foi carregada
+            String sql = "UPDATE cliente SET nome = ?, telefone = ?, email = ?, versao = versao + 1, " +
+                    "ultima_atividade = CURRENT_TIMESTAMP " +
+                    "WHERE id_cliente = ? AND versao = ?";
             PreparedStatement stmt = conn.prepareStatement(sql); // Cria um PreparedStatement
             stmt.setString(1, nome);      // Define o novo nome
             stmt.setString(2, telefone);  // Define o novo telefone
             stmt.setString(3, email);     // Define o novo email
             stmt.setInt(4, idSelecionado); // Usa o ID do cliente selecionado para a cláusula WHERE
-            stmt.executeUpdate();         // Executa a instrução SQL de atualização
+            stmt.setLong(5, versaoSelecionada); // Usa a versão carregada para detectar edições concorrentes
+            int linhas = stmt.executeUpdate(); // Executa a instrução SQL de atualização
+
+            if (linhas == 0) { // Nenhuma linha alterada: o cliente foi excluído ou editado por outra pessoa
+                tratarConflitoEdicao(conn);
+                return;
+            }
 
             JOptionPane.showMessageDialog(frame, "Cliente atualizado com sucesso!", "Sucesso", JOptionPane.INFORMATION_MESSAGE);
             limparCampos();     // Limpa os campos de texto
@@ -362,6 +419,60 @@ public class CadastroClienteGUI {
         }
     }
 
+    /**
+     * O índice único de email só vale na tabela cliente; os clientes arquivados ficam em cliente_arquivo.
+     * Retorna true (e avisa o usuário) se o email pertencer a um cliente arquivado diferente de {@code idIgnorado}.
+     */
+    private static boolean emailArquivado(Connection conn, String email, int idIgnorado) throws SQLException {
+        String sql = "SELECT id_cliente FROM cliente_arquivo WHERE email = ? AND id_cliente <> ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, email);
+            stmt.setInt(2, idIgnorado);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) return false;
+                JOptionPane.showMessageDialog(frame,
+                        "O email " + email + " já pertence ao cliente arquivado com ID " + rs.getLong(1) + ".",
+                        "Erro", JOptionPane.ERROR_MESSAGE);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Trata o caso em que o cliente em edição foi alterado (ou excluído) por outro usuário.
+     * Permite sobrescrever com os dados digitados, recarregar os dados atuais ou cancelar.
+     */
+    private static void tratarConflitoEdicao(Connection conn) throws SQLException {
+        String sql = "SELECT nome, telefone, email, versao FROM cliente WHERE id_cliente = ?";
+        PreparedStatement stmt = conn.prepareStatement(sql);
+        stmt.setInt(1, idSelecionado);
+        ResultSet rs = stmt.executeQuery();
+
+        if (!rs.next()) { // O cliente não existe mais
+            JOptionPane.showMessageDialog(frame, "O cliente foi excluído por outro usuário.", "Aviso", JOptionPane.WARNING_MESSAGE);
+            limparCampos();
+            carregarClientes();
+            return;
+        }
+
+        Object[] opcoes = {"Sobrescrever", "Recarregar", "Cancelar"};
+        int escolha = JOptionPane.showOptionDialog(frame,
+                "Este cliente foi alterado por outro usuário enquanto você editava.\n" +
+                        "Atual: " + rs.getString("nome") + " | " + rs.getString("telefone") + " | " + rs.getString("email"),
+                "Conflito de edição", JOptionPane.DEFAULT_OPTION, JOptionPane.WARNING_MESSAGE, null, opcoes, opcoes[1]);
+
+        if (escolha == 0) { // Sobrescrever: tenta de novo sobre a versão mais recente
+            versaoSelecionada = rs.getLong("versao");
+            editarCliente();
+        } else if (escolha == 1) { // Recarregar: mostra os dados atuais para o usuário mesclar manualmente
+            nomeField.setText(rs.getString("nome"));
+            telefoneField.setText(rs.getString("telefone"));
+            emailField.setText(rs.getString("email"));
+            versaoSelecionada = rs.getLong("versao");
+            carregarClientes();
+        }
+    }
+
     /**
      * Método para excluir um cliente do banco de dados.
      * Solicita confirmação ao usuário antes de realizar a exclusão.
@@ -408,6 +519,7 @@ public class CadastroClienteGUI {
         telefoneField.setText("");  // Limpa o campo Telefone
         emailField.setText("");     // Limpa o campo Email
         idSelecionado = -1;         // Reseta o ID selecionado para -1 (nenhum cliente em edição)
+        versaoSelecionada = -1;     // Reseta a versão carregada para edição
         cadastrarButton.setEnabled(true); // Garante que o botão Cadastrar esteja habilitado
     }
 }
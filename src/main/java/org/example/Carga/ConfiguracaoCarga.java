@@ -0,0 +1,204 @@
+package org.example.Carga; // Define o pacote do gerador de carga
+
+import java.util.EnumMap; // Mapa otimizado para chaves do tipo enum
+import java.util.Map;
+
+/**
+ * Parâmetros do gerador de carga, lidos da linha de comando no formato "--nome valor".
+ */
+public class ConfiguracaoCarga {
+
+    private int threads = 8;                 // Número de threads que executam as operações
+    private boolean virtuais = false;        // Usa threads virtuais em vez de threads de plataforma
+    private double taxa = 500;               // Operações por segundo (taxa alvo, em malha aberta)
+    private int duracaoSegundos = 60;        // Duração total da carga
+    private int intervaloSegundos = 5;       // De quanto em quanto tempo imprimir as métricas
+    private int aquecimentoSegundos = 0;     // Início da medição que fica fora do resumo (JIT, pools, caches frios)
+    private int preencher = 1_000;           // Clientes criados antes de iniciar a medição
+    private int chavesQuentes = 0;           // Se > 0, os updates concentram-se nesses primeiros clientes
+    private String configHibernate = "hibernate-embarcado.cfg.xml"; // Banco usado (H2 embarcado por padrão)
+    private int orcamentoLeituraMs = 0;      // Se > 0, leituras passam pelo modo resiliente com este orçamento
+    private int incidenteInicio = -1;        // Segundo da medição em que o banco simulado fica lento (-1 = sem incidente)
+    private int incidenteDuracao;            // Duração do incidente, em segundos
+    private long incidenteAtrasoMs;          // Atraso ao obter cada conexão durante o incidente
+    private double incidenteTaxaFalha;       // Fração das conexões que falham durante o incidente
+    private final Map<Operacao, Integer> mix = new EnumMap<>(Operacao.class); // Peso de cada operação
+
+    public ConfiguracaoCarga() {
+        mix.put(Operacao.CREATE, 10);
+        mix.put(Operacao.GET, 50);
+        mix.put(Operacao.GET_ALL, 5);
+        mix.put(Operacao.UPDATE, 25);
+        mix.put(Operacao.DELETE, 10);
+    }
+
+    /**
+     * Lê os argumentos da linha de comando. Lança IllegalArgumentException se algum for inválido.
+     */
+    public static ConfiguracaoCarga deArgumentos(String[] args) {
+        ConfiguracaoCarga config = new ConfiguracaoCarga();
+
+        for (int i = 0; i < args.length; i++) {
+            String nome = args[i];
+            if (nome.equals("--virtuais")) { // Único parâmetro sem valor
+                config.virtuais = true;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Valor ausente para " + nome);
+            }
+            String valor = args[++i];
+
+            switch (nome) {
+                case "--threads" -> config.threads = positivo(nome, Integer.parseInt(valor));
+                case "--taxa" -> config.taxa = positivo(nome, Double.parseDouble(valor));
+                case "--duracao" -> config.duracaoSegundos = positivo(nome, Integer.parseInt(valor));
+                case "--intervalo" -> config.intervaloSegundos = positivo(nome, Integer.parseInt(valor));
+                case "--aquecimento" -> config.aquecimentoSegundos = naoNegativo(nome, Integer.parseInt(valor));
+                case "--preencher" -> config.preencher = naoNegativo(nome, Integer.parseInt(valor));
+                case "--chaves-quentes" -> config.chavesQuentes = positivo(nome, Integer.parseInt(valor));
+                case "--config" -> config.configHibernate = valor;
+                case "--mix" -> config.lerMix(valor);
+                case "--resiliente" -> config.orcamentoLeituraMs = positivo(nome, Integer.parseInt(valor));
+                case "--incidente" -> config.lerIncidente(valor);
+                default -> throw new IllegalArgumentException("Parâmetro desconhecido: " + nome);
+            }
+        }
+
+        if (config.aquecimentoSegundos >= config.duracaoSegundos) {
+            throw new IllegalArgumentException("--aquecimento deve ser menor que --duracao");
+        }
+        if (config.chavesQuentes > config.preencher) {
+            throw new IllegalArgumentException("--chaves-quentes não pode ser maior que --preencher");
+        }
+        return config;
+    }
+
+    // Formato: create=10,get=50,getAll=5,update=25,delete=10 (operações omitidas ficam com peso 0)
+    private void lerMix(String valor) {
+        mix.replaceAll((operacao, peso) -> 0);
+        for (String parte : valor.split(",")) {
+            String[] chaveValor = parte.split("=");
+            if (chaveValor.length != 2) {
+                throw new IllegalArgumentException("Item inválido em --mix: " + parte);
+            }
+            mix.put(Operacao.porNome(chaveValor[0].trim()), naoNegativo("--mix", Integer.parseInt(chaveValor[1].trim())));
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("--mix precisa de pelo menos uma operação com peso positivo");
+        }
+    }
+
+    // Formato: INICIO:DURACAO:ATRASO_MS[:TAXA_FALHA] (ex: 10:15:3000 ou 10:15:0:1.0 para banco fora do ar)
+    private void lerIncidente(String valor) {
+        String[] partes = valor.split(":");
+        if (partes.length < 3 || partes.length > 4) {
+            throw new IllegalArgumentException("Formato de --incidente: INICIO:DURACAO:ATRASO_MS[:TAXA_FALHA]");
+        }
+        incidenteInicio = Integer.parseInt(partes[0]);
+        incidenteDuracao = positivo("--incidente (duração)", Integer.parseInt(partes[1]));
+        incidenteAtrasoMs = Long.parseLong(partes[2]);
+        incidenteTaxaFalha = partes.length == 4 ? Double.parseDouble(partes[3]) : 0;
+        if (incidenteInicio < 0 || incidenteAtrasoMs < 0 || incidenteTaxaFalha < 0 || incidenteTaxaFalha > 1) {
+            throw new IllegalArgumentException("Valores inválidos em --incidente: " + valor);
+        }
+    }
+
+    private static int positivo(String nome, int valor) {
+        if (valor <= 0) throw new IllegalArgumentException(nome + " deve ser maior que zero");
+        return valor;
+    }
+
+    private static int naoNegativo(String nome, int valor) {
+        if (valor < 0) throw new IllegalArgumentException(nome + " não pode ser negativo");
+        return valor;
+    }
+
+    private static double positivo(String nome, double valor) {
+        if (valor <= 0) throw new IllegalArgumentException(nome + " deve ser maior que zero");
+        return valor;
+    }
+
+    // Texto de ajuda exibido quando os parâmetros são inválidos
+    public static String uso() {
+        return """
+                Uso: GeradorCarga [opções]
+                  --threads N           threads que executam as operações (padrão 8)
+                  --virtuais            usa threads virtuais em vez de threads de plataforma
+                  --taxa N              operações por segundo, em malha aberta (padrão 500)
+                  --duracao S           duração da medição em segundos (padrão 60)
+                  --intervalo S         intervalo entre relatórios em segundos (padrão 5)
+                  --aquecimento S       janelas iniciadas nos primeiros S segundos não entram no resumo (padrão 0)
+                  --preencher N         clientes criados antes da medição (padrão 1000)
+                  --chaves-quentes K    concentra os updates nos K primeiros clientes (padrão 0 = sem disputa)
+                  --mix op=peso,...     pesos de create/get/getAll/update/delete (padrão 10/50/5/25/10)
+                  --config ARQUIVO      configuração do Hibernate (padrão hibernate-embarcado.cfg.xml)
+                  --resiliente MS       leituras com orçamento de MS ms, cache local e disjuntor (padrão: desligado)
+                  --incidente I:D:A[:T] simula banco lento do segundo I por D segundos: A ms por conexão
+                                        e fração T de conexões com falha (ex: 10:15:3000 ou 10:15:0:1.0)""";
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public boolean isVirtuais() {
+        return virtuais;
+    }
+
+    public double getTaxa() {
+        return taxa;
+    }
+
+    public int getDuracaoSegundos() {
+        return duracaoSegundos;
+    }
+
+    public int getIntervaloSegundos() {
+        return intervaloSegundos;
+    }
+
+    public int getAquecimentoSegundos() {
+        return aquecimentoSegundos;
+    }
+
+    public int getPreencher() {
+        return preencher;
+    }
+
+    public int getChavesQuentes() {
+        return chavesQuentes;
+    }
+
+    public String getConfigHibernate() {
+        return configHibernate;
+    }
+
+    public int getOrcamentoLeituraMs() {
+        return orcamentoLeituraMs;
+    }
+
+    public boolean temIncidente() {
+        return incidenteInicio >= 0;
+    }
+
+    public int getIncidenteInicio() {
+        return incidenteInicio;
+    }
+
+    public int getIncidenteDuracao() {
+        return incidenteDuracao;
+    }
+
+    public long getIncidenteAtrasoMs() {
+        return incidenteAtrasoMs;
+    }
+
+    public double getIncidenteTaxaFalha() {
+        return incidenteTaxaFalha;
+    }
+
+    public Map<Operacao, Integer> getMix() {
+        return mix;
+    }
+}
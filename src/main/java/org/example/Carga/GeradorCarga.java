@@ -0,0 +1,360 @@
+package org.example.Carga; // Define o pacote do gerador de carga
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.example.Controller.ClienteController;
+import org.example.Controller.LimitadorConcorrencia;
+import org.example.Entity.Cliente;
+import org.example.Entity.Form.ClienteForm;
+import org.example.Exception.SobrecargaException;
+import org.example.Monitoramento.ClienteRepositoryMonitorado;
+import org.example.Service.CacheConsultasClientes;
+import org.example.Repository.ClienteRepository;
+import org.example.Service.ClienteDAO;
+import org.example.Service.ClienteRepositoryResiliente;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gerador de carga para a pilha completa ClienteController -> ClienteRepository -> Hibernate -> banco.
+ *
+ * Funciona em malha aberta: cada operação tem um horário previsto de início (1 / taxa segundos
+ * após a anterior) e a latência é medida a partir desse horário, não de quando uma thread ficou livre.
+ * Assim, quando o sistema atrasa, a espera na fila entra na medição (sem "coordinated omission").
+ * Por padrão roda contra um H2 em memória, sem precisar de servidor de banco.
+ */
+public class GeradorCarga {
+
+    private static final int CAPACIDADE_IDS = 1 << 16; // IDs recentes guardados para get/update
+    private static final int TENTATIVAS_UPDATE = 5;    // Novas tentativas em caso de conflito de versão
+    private static final long LATENCIA_MAXIMA_US = TimeUnit.HOURS.toMicros(1);
+
+    private final ConfiguracaoCarga config;
+    private final ClienteController controller;
+    private final CacheConsultasClientes cache; // Cache de listagens do DAO (null quando não houver)
+    private final ClienteRepositoryResiliente resiliente; // Modo de leitura resiliente (null quando desligado)
+
+    private final Map<Operacao, Recorder> latencias = new EnumMap<>(Operacao.class);     // Janela atual
+    private final Map<Operacao, Histogram> acumulado = new EnumMap<>(Operacao.class);    // Desde o fim do aquecimento
+    private final Map<Operacao, LongAdder> erros = new EnumMap<>(Operacao.class);
+    private final Map<Operacao, Long> errosAcumulados = new EnumMap<>(Operacao.class);
+    private final LongAdder rejeitadas = new LongAdder(); // Recusadas pelo controle de admissão (sobrecarga)
+    private long rejeitadasAcumuladas;
+    private final LongAdder conflitos = new LongAdder(); // Conflitos de versão resolvidos com nova tentativa
+    private final LongAdder semAlvo = new LongAdder();   // Deletes pulados por falta de cliente disponível
+    private final AtomicReference<String> ultimoErro = new AtomicReference<>();
+
+    private final AtomicLongArray idsRecentes = new AtomicLongArray(CAPACIDADE_IDS); // Anel de IDs criados
+    private final AtomicLong idsGravados = new AtomicLong();
+    private final ConcurrentLinkedQueue<Long> paraExcluir = new ConcurrentLinkedQueue<>(); // IDs ainda não excluídos
+    private final AtomicLong sequencia = new AtomicLong(); // Garante emails únicos
+    private final String execucao = Long.toHexString(System.currentTimeMillis());
+    private long[] quentes = new long[0];
+    private long fimUltimaJanela; // Instante em que a janela anterior foi impressa
+    private long inicioAcumulado = -1; // Início da primeira janela somada ao resumo (-1 = nenhuma ainda)
+
+    private final Operacao[] sorteio; // Tabela de pesos do mix, sorteada por índice
+
+    public GeradorCarga(ConfiguracaoCarga config, ClienteController controller) {
+        this(config, controller, null);
+    }
+
+    public GeradorCarga(ConfiguracaoCarga config, ClienteController controller, CacheConsultasClientes cache) {
+        this(config, controller, cache, null);
+    }
+
+    public GeradorCarga(ConfiguracaoCarga config, ClienteController controller, CacheConsultasClientes cache,
+                        ClienteRepositoryResiliente resiliente) {
+        this.config = config;
+        this.controller = controller;
+        this.cache = cache;
+        this.resiliente = resiliente;
+
+        int total = 0;
+        for (int peso : config.getMix().values()) total += peso;
+        sorteio = new Operacao[total];
+        int i = 0;
+        for (Map.Entry<Operacao, Integer> entrada : config.getMix().entrySet()) {
+            for (int j = 0; j < entrada.getValue(); j++) sorteio[i++] = entrada.getKey();
+        }
+
+        for (Operacao operacao : Operacao.values()) {
+            latencias.put(operacao, new Recorder(LATENCIA_MAXIMA_US, 3));
+            acumulado.put(operacao, new Histogram(LATENCIA_MAXIMA_US, 3));
+            erros.put(operacao, new LongAdder());
+            errosAcumulados.put(operacao, 0L);
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        ConfiguracaoCarga config;
+        try {
+            config = ConfiguracaoCarga.deArgumentos(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(ConfiguracaoCarga.uso());
+            System.exit(2);
+            return;
+        }
+
+        // Precisa ser definido antes do primeiro uso de ClienteDAO (a SessionFactory é estática)
+        System.setProperty(ClienteDAO.PROPRIEDADE_CONFIG, config.getConfigHibernate());
+        if (config.temIncidente()) {
+            // O incidente é simulado no pool de conexões do Hibernate
+            System.setProperty("hibernate.connection.provider_class", ProvedorConexoesComFalhas.class.getName());
+        }
+
+        ClienteDAO dao = new ClienteDAO();
+        ClienteRepository repository = new ClienteRepositoryMonitorado(dao);
+        ClienteRepositoryResiliente resiliente = null;
+        if (config.getOrcamentoLeituraMs() > 0) {
+            resiliente = new ClienteRepositoryResiliente(repository, Duration.ofMillis(config.getOrcamentoLeituraMs()));
+            repository = resiliente;
+        }
+        new GeradorCarga(config, new ClienteController(repository), dao.getCache(), resiliente).executar();
+        System.exit(0);
+    }
+
+    /**
+     * Preenche a base, dispara as operações na taxa configurada e imprime as métricas.
+     */
+    public void executar() throws InterruptedException {
+        preencher();
+
+        ThreadFactory fabrica = config.isVirtuais()
+                ? Thread.ofVirtual().name("carga-", 0).factory()
+                : Thread.ofPlatform().name("carga-", 0).daemon().factory();
+        ExecutorService executor = Executors.newFixedThreadPool(config.getThreads(), fabrica);
+        ScheduledExecutorService relatorio = Executors.newSingleThreadScheduledExecutor();
+
+        System.out.printf("Carga: %.0f op/s por %ds (aquecimento %ds) em %d threads %s | mix %s | chaves quentes: %d\n",
+                config.getTaxa(), config.getDuracaoSegundos(), config.getAquecimentoSegundos(), config.getThreads(),
+                config.isVirtuais() ? "virtuais" : "de plataforma", config.getMix(), config.getChavesQuentes());
+
+        long inicio = System.nanoTime();
+        fimUltimaJanela = inicio;
+        long intervaloRelatorio = config.getIntervaloSegundos();
+        relatorio.scheduleAtFixedRate(() -> imprimirJanela(inicio), intervaloRelatorio, intervaloRelatorio, TimeUnit.SECONDS);
+        if (config.temIncidente()) agendarIncidente(relatorio);
+
+        // Malha aberta: o despacho segue o relógio, independentemente de quantas operações ainda estão em curso
+        long passo = (long) (TimeUnit.SECONDS.toNanos(1) / config.getTaxa());
+        long fim = inicio + TimeUnit.SECONDS.toNanos(config.getDuracaoSegundos());
+        for (long i = 0; ; i++) {
+            long previsto = inicio + i * passo;
+            if (previsto >= fim) break;
+
+            long espera = previsto - System.nanoTime();
+            if (espera > 0) LockSupport.parkNanos(espera);
+
+            Operacao operacao = sorteio[ThreadLocalRandom.current().nextInt(sorteio.length)];
+            executor.execute(() -> executarOperacao(operacao, previsto));
+        }
+
+        executor.shutdown();
+        if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+            System.out.println("Aviso: operações ainda pendentes após 1 minuto; encerrando mesmo assim.");
+            executor.shutdownNow();
+        }
+        relatorio.shutdown();
+        relatorio.awaitTermination(5, TimeUnit.SECONDS);
+
+        imprimirJanela(inicio); // Fecha a última janela parcial
+        imprimirResumo();
+    }
+
+    // Liga e desliga as falhas simuladas do pool de conexões nos horários configurados
+    private void agendarIncidente(ScheduledExecutorService agendador) {
+        agendador.schedule(() -> {
+            System.out.printf("  >>> incidente: +%d ms por conexão, %.0f%% de falhas\n",
+                    config.getIncidenteAtrasoMs(), config.getIncidenteTaxaFalha() * 100);
+            ProvedorConexoesComFalhas.definirAtraso(config.getIncidenteAtrasoMs());
+            ProvedorConexoesComFalhas.definirTaxaFalha(config.getIncidenteTaxaFalha());
+        }, config.getIncidenteInicio(), TimeUnit.SECONDS);
+        agendador.schedule(() -> {
+            System.out.println("  >>> fim do incidente");
+            ProvedorConexoesComFalhas.normalizar();
+        }, config.getIncidenteInicio() + config.getIncidenteDuracao(), TimeUnit.SECONDS);
+    }
+
+    // Cria os clientes iniciais; os primeiros K viram as "chaves quentes" disputadas pelos updates
+    private void preencher() {
+        quentes = new long[config.getChavesQuentes()];
+        for (int i = 0; i < config.getPreencher(); i++) {
+            Cliente cliente = controller.create(novoFormulario());
+            if (i < quentes.length) {
+                quentes[i] = cliente.getIdCliente(); // Chaves quentes nunca são excluídas pela carga
+                idsRecentes.set((int) (idsGravados.getAndIncrement() & (CAPACIDADE_IDS - 1)), cliente.getIdCliente());
+            } else {
+                registrarCriado(cliente.getIdCliente());
+            }
+        }
+        System.out.println(config.getPreencher() + " cliente(s) criados antes da medição.");
+    }
+
+    private void executarOperacao(Operacao operacao, long previsto) {
+        try {
+            switch (operacao) {
+                case CREATE -> registrarCriado(controller.create(novoFormulario()).getIdCliente());
+                case GET -> controller.get(idAleatorio());
+                case GET_ALL -> controller.getAll("");
+                case UPDATE -> atualizar(quentes.length > 0 ? quentes[ThreadLocalRandom.current().nextInt(quentes.length)] : idAleatorio());
+                case DELETE -> {
+                    Long id = paraExcluir.poll();
+                    if (id == null) {
+                        semAlvo.increment();
+                        return;
+                    }
+                    controller.delete(id);
+                }
+            }
+            latencias.get(operacao).recordValue(Math.min((System.nanoTime() - previsto) / 1_000, LATENCIA_MAXIMA_US));
+        } catch (SobrecargaException e) {
+            rejeitadas.increment(); // Recusa rápida: não é erro do banco, entra em uma métrica própria
+        } catch (RuntimeException e) {
+            erros.get(operacao).increment();
+            ultimoErro.set(operacao.getNome() + ": " + e.getMessage());
+        }
+    }
+
+    // Leitura seguida de update condicional pela versão lida, mesclando sobre a versão nova em caso de conflito
+    private void atualizar(long id) {
+        Cliente atual = controller.get(id);
+        if (atual == null) return; // Excluído nesse meio-tempo
+
+        ClienteForm form = new ClienteForm();
+        form.setNome("Carga " + sequencia.incrementAndGet());
+        form.setTelefone(telefoneAleatorio());
+        form.setEmail(atual.getEmail());
+
+        controller.update(id, form, atual.getVersao(), TENTATIVAS_UPDATE, (maisRecente, meuForm) -> {
+            conflitos.increment();
+            return meuForm; // Os campos alterados pela carga sempre prevalecem
+        });
+    }
+
+    private void registrarCriado(long id) {
+        idsRecentes.set((int) (idsGravados.getAndIncrement() & (CAPACIDADE_IDS - 1)), id);
+        paraExcluir.add(id);
+    }
+
+    private long idAleatorio() {
+        long gravados = Math.min(idsGravados.get(), CAPACIDADE_IDS);
+        if (gravados == 0) return 1;
+        return idsRecentes.get(ThreadLocalRandom.current().nextInt((int) gravados));
+    }
+
+    private ClienteForm novoFormulario() {
+        long n = sequencia.incrementAndGet();
+        ClienteForm form = new ClienteForm();
+        form.setNome("Carga " + n);
+        form.setTelefone(telefoneAleatorio());
+        form.setEmail("carga-" + execucao + "-" + n + "@exemplo.com");
+        return form;
+    }
+
+    private static String telefoneAleatorio() {
+        return String.valueOf(11_900_000_000L + ThreadLocalRandom.current().nextLong(100_000_000L));
+    }
+
+    // Imprime as métricas da janela que acabou de terminar e as acumula no histograma total.
+    // Janelas iniciadas durante o aquecimento são só impressas: a latência da JVM fria não entra no resumo
+    private synchronized void imprimirJanela(long inicio) {
+        long agora = System.nanoTime();
+        long inicioJanela = fimUltimaJanela;
+        double duracaoJanela = (agora - inicioJanela) / 1e9;
+        fimUltimaJanela = agora;
+        boolean aquecimento = inicioJanela - inicio < TimeUnit.SECONDS.toNanos(config.getAquecimentoSegundos());
+        if (!aquecimento && inicioAcumulado < 0) inicioAcumulado = inicioJanela;
+        System.out.printf("[%6.1fs]%s\n", (agora - inicio) / 1e9, aquecimento ? " aquecimento (fora do resumo)" : "");
+
+        for (Operacao operacao : Operacao.values()) {
+            Histogram janela = latencias.get(operacao).getIntervalHistogram();
+            long errosJanela = erros.get(operacao).sumThenReset();
+            if (!aquecimento) {
+                acumulado.get(operacao).add(janela);
+                errosAcumulados.merge(operacao, errosJanela, Long::sum);
+            }
+
+            if (janela.getTotalCount() == 0 && errosJanela == 0) continue;
+            imprimirLinha(operacao.getNome(), janela, errosJanela, duracaoJanela);
+        }
+
+        long rejeitadasJanela = rejeitadas.sumThenReset();
+        if (!aquecimento) rejeitadasAcumuladas += rejeitadasJanela;
+        System.out.printf("  rejeitadas (sobrecarga) %d | %s | %s\n", rejeitadasJanela,
+                formatar(controller.getMetricasLeitura()), formatar(controller.getMetricasEscrita()));
+
+        if (resiliente != null) System.out.println("  " + formatar(resiliente.getMetricas()));
+
+        String erro = ultimoErro.getAndSet(null);
+        if (erro != null) System.out.println("  último erro -> " + erro);
+    }
+
+    private void imprimirResumo() {
+        System.out.println("\n========== RESUMO ==========");
+        if (inicioAcumulado < 0) {
+            System.out.println("  nenhuma janela depois do aquecimento");
+            return;
+        }
+        double segundos = (fimUltimaJanela - inicioAcumulado) / 1e9;
+        Histogram total = new Histogram(LATENCIA_MAXIMA_US, 3);
+        long errosTotal = 0;
+
+        System.out.printf("  %.1f s medidos após o aquecimento\n", segundos);
+        for (Operacao operacao : Operacao.values()) {
+            Histogram histograma = acumulado.get(operacao);
+            long errosOperacao = errosAcumulados.get(operacao);
+            total.add(histograma);
+            errosTotal += errosOperacao;
+            if (histograma.getTotalCount() == 0 && errosOperacao == 0) continue;
+            imprimirLinha(operacao.getNome(), histograma, errosOperacao, segundos);
+        }
+        imprimirLinha("total", total, errosTotal, segundos);
+        System.out.printf("  conflitos de versão: %d | deletes sem alvo: %d | rejeitadas por sobrecarga: %d\n",
+                conflitos.sum(), semAlvo.sum(), rejeitadasAcumuladas);
+        if (cache != null) {
+            CacheConsultasClientes.Metricas metricas = cache.getMetricas();
+            System.out.printf("  cache de listagens: acerto %.1f%% (%d acertos, %d falhas) | %d entradas, %d KiB\n",
+                    metricas.taxaAcerto() * 100, metricas.acertos(), metricas.falhas(),
+                    metricas.entradas(), metricas.peso() / 1024);
+        }
+    }
+
+    private static String formatar(ClienteRepositoryResiliente.Metricas metricas) {
+        return String.format("disjuntor %s (aberturas %d, recusadas %d) | leituras desatualizadas %d | tempo esgotado %d",
+                metricas.disjuntor().estado(), metricas.disjuntor().aberturas(), metricas.disjuntor().recusadas(),
+                metricas.desatualizadas(), metricas.tempoEsgotado());
+    }
+
+    private static String formatar(LimitadorConcorrencia.Metricas metricas) {
+        return String.format("%s: limite %d, em execução %d, na fila %d",
+                metricas.nome(), metricas.limite(), metricas.emExecucao(), metricas.emFila());
+    }
+
+    private static void imprimirLinha(String nome, Histogram histograma, long erros, double segundos) {
+        long sucessos = histograma.getTotalCount();
+        double taxaErro = sucessos + erros == 0 ? 0 : 100.0 * erros / (sucessos + erros);
+        System.out.printf("  %-7s %9.1f op/s | p50 %8.2f ms | p99 %8.2f ms | p999 %8.2f ms | max %8.2f ms | erros %d (%.2f%%)\n",
+                nome, sucessos / segundos,
+                histograma.getValueAtPercentile(50) / 1000.0,
+                histograma.getValueAtPercentile(99) / 1000.0,
+                histograma.getValueAtPercentile(99.9) / 1000.0,
+                histograma.getMaxValue() / 1000.0,
+                erros, taxaErro);
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.Carga; // Define o pacote do gerador de carga
+
+/**
+ * Operações do ClienteController que o gerador de carga sabe executar.
+ * O nome usado na linha de comando (ex: "getAll") fica em {@link #getNome()}.
+ */
+public enum Operacao {
+
+    CREATE("create"),
+    GET("get"),
+    GET_ALL("getAll"),
+    UPDATE("update"),
+    DELETE("delete");
+
+    private final String nome; // Nome usado no parâmetro --mix
+
+    Operacao(String nome) {
+        this.nome = nome;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    // Converte o nome da linha de comando na operação correspondente
+    public static Operacao porNome(String nome) {
+        for (Operacao operacao : values()) {
+            if (operacao.nome.equalsIgnoreCase(nome)) return operacao;
+        }
+        throw new IllegalArgumentException("Operação desconhecida: " + nome);
+    }
+}
@@ -0,0 +1,133 @@
+package org.example.Carga; // Define o pacote do gerador de carga
+
+import org.hibernate.HibernateException;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.jdbc.connections.spi.DatabaseConnectionInfo;
+import org.hibernate.service.UnknownUnwrapTypeException;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.ServiceRegistryAwareService;
+import org.hibernate.service.spi.ServiceRegistryImplementor;
+import org.hibernate.service.spi.Stoppable;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Pool de conexões do Hibernate que simula um banco lento ou fora do ar, para testar o modo resiliente
+ * sem derrubar um MariaDB de verdade. Cada conexão obtida pode atrasar e/ou falhar.
+ *
+ * Não implementa pool próprio: envolve outro ConnectionProvider (o pool padrão do Hibernate, ou o
+ * indicado em "falhas.provedor") e só acrescenta o atraso e as falhas antes de repassar a chamada.
+ *
+ * Ativação: -Dhibernate.connection.provider_class=org.example.Carga.ProvedorConexoesComFalhas
+ * Valores iniciais: -Dfalhas.atraso.ms=2000 e -Dfalhas.taxa=0.5 (fração das conexões que falham);
+ * durante a execução, use {@link #definirAtraso(long)} e {@link #definirTaxaFalha(double)}.
+ */
+public class ProvedorConexoesComFalhas implements ConnectionProvider, Configurable, Stoppable, ServiceRegistryAwareService {
+
+    public static final String PROPRIEDADE_PROVEDOR = "falhas.provedor"; // Classe do provedor envolvido
+    private static final String PROVEDOR_PADRAO =
+            "org.hibernate.engine.jdbc.connections.internal.DriverManagerConnectionProviderImpl";
+
+    private static volatile long atrasoMs = Long.getLong("falhas.atraso.ms", 0);
+    private static volatile double taxaFalha = Double.parseDouble(System.getProperty("falhas.taxa", "0"));
+
+    private final ConnectionProvider provedor;
+
+    public ProvedorConexoesComFalhas() {
+        this(criarProvedor(System.getProperty(PROPRIEDADE_PROVEDOR, PROVEDOR_PADRAO)));
+    }
+
+    public ProvedorConexoesComFalhas(ConnectionProvider provedor) {
+        this.provedor = provedor;
+    }
+
+    private static ConnectionProvider criarProvedor(String nomeClasse) {
+        try {
+            return (ConnectionProvider) Class.forName(nomeClasse).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new HibernateException("Não foi possível criar o provedor de conexões " + nomeClasse, e);
+        }
+    }
+
+    public static void definirAtraso(long milissegundos) {
+        atrasoMs = milissegundos;
+    }
+
+    public static void definirTaxaFalha(double taxa) {
+        if (taxa < 0 || taxa > 1) throw new IllegalArgumentException("A taxa de falha deve estar entre 0 e 1");
+        taxaFalha = taxa;
+    }
+
+    // Volta ao funcionamento normal (fim do incidente simulado)
+    public static void normalizar() {
+        atrasoMs = 0;
+        taxaFalha = 0;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long atraso = atrasoMs;
+        if (atraso > 0) {
+            try {
+                Thread.sleep(atraso);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLTransientConnectionException("Espera pela conexão interrompida", e);
+            }
+        }
+        double taxa = taxaFalha;
+        if (taxa > 0 && ThreadLocalRandom.current().nextDouble() < taxa) {
+            throw new SQLTransientConnectionException("Falha simulada ao obter conexão");
+        }
+        return provedor.getConnection();
+    }
+
+    @Override
+    public void closeConnection(Connection conexao) throws SQLException {
+        provedor.closeConnection(conexao);
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return provedor.supportsAggressiveRelease();
+    }
+
+    @Override
+    public DatabaseConnectionInfo getDatabaseConnectionInfo(Dialect dialect) {
+        return provedor.getDatabaseConnectionInfo(dialect);
+    }
+
+    // O ciclo de vida do serviço é repassado ao provedor envolvido, se ele o usar
+
+    @Override
+    public void injectServices(ServiceRegistryImplementor serviceRegistry) {
+        if (provedor instanceof ServiceRegistryAwareService servico) servico.injectServices(serviceRegistry);
+    }
+
+    @Override
+    public void configure(Map<String, Object> configuracao) {
+        if (provedor instanceof Configurable configuravel) configuravel.configure(configuracao);
+    }
+
+    @Override
+    public void stop() {
+        if (provedor instanceof Stoppable paravel) paravel.stop();
+    }
+
+    @Override
+    public boolean isUnwrappableAs(Class<?> tipo) {
+        return tipo.isInstance(this) || provedor.isUnwrappableAs(tipo);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> tipo) {
+        if (tipo.isInstance(this)) return tipo.cast(this);
+        if (provedor.isUnwrappableAs(tipo)) return provedor.unwrap(tipo);
+        throw new UnknownUnwrapTypeException(tipo);
+    }
+}
@@ -2,24 +2,46 @@ package org.example.Controller; // Define que esta classe está no pacote de con
 
 import org.example.Entity.Cliente; // Importa a entidade Cliente (representa a tabela no banco)
 import org.example.Entity.Form.ClienteForm; // Importa o formulário com os dados de entrada do usuário
+import org.example.Exception.ConflitoVersaoException; // Importa a exceção de conflito de versão (edição concorrente)
 import org.example.Repository.ClienteRepository; // Importa o repositório responsável pela comunicação com o banco de dados
+import org.example.Repository.Leitura; // Importa o resultado de leitura com o indicador de valor desatualizado
+import org.example.Repository.ResultadoUpsert; // Importa o resultado do upsert (inserido ou atualizado)
 
 import java.util.List; // Importa a classe List para trabalhar com listas de clientes
+import java.util.concurrent.TimeUnit; // Importa as unidades de tempo usadas nos limites de fila
+import java.util.function.BiFunction; // Importa a função usada para mesclar alterações em caso de conflito
 
 /**
  * A classe ClienteController funciona como um intermediário entre o usuário (ou interface)
  * e o repositório de dados. Aqui é onde as ações são organizadas.
+ *
+ * Toda chamada passa por um controle de admissão, com limites separados para leituras e escritas:
+ * se o banco ficar lento, o excesso recebe SobrecargaException em vez de acumular threads esperando.
  */
 public class ClienteController {
 
     private final ClienteRepository service; // Declara a dependência do repositório (DAO)
+    private final LimitadorConcorrencia leituras; // Limita get e getAll
+    private final LimitadorConcorrencia escritas; // Limita create, update e delete
 
     /**
      * Construtor da classe. Ele recebe uma implementação de ClienteRepository.
      * Isso é chamado de "injeção de dependência manual".
+     * Usa limites padrão de concorrência para leituras e escritas.
      */
     public ClienteController(ClienteRepository service) {
+        this(service,
+                new LimitadorConcorrencia("leitura", 20, 4, 200, 200, 500, TimeUnit.MILLISECONDS),
+                new LimitadorConcorrencia("escrita", 10, 2, 50, 100, 1, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Construtor com limitadores informados pelo chamador (ex: para ajustar a capacidade do banco).
+     */
+    public ClienteController(ClienteRepository service, LimitadorConcorrencia leituras, LimitadorConcorrencia escritas) {
         this.service = service;
+        this.leituras = leituras;
+        this.escritas = escritas;
     }
 
     /**
@@ -27,7 +49,7 @@ public class ClienteController {
      * Responsável por cadastrar um novo cliente a partir de um formulário.
      */
     public Cliente create(ClienteForm form) {
-        return service.create(form); // Chama o método create do repositório
+        return escritas.executar(() -> service.create(form)); // Chama o método create do repositório
     }
 
     /**
@@ -35,7 +57,7 @@ public class ClienteController {
      * Busca um cliente pelo ID.
      */
     public Cliente get(Long id) {
-        return service.get(id); // Chama o método get do repositório
+        return leituras.executar(() -> service.get(id)); // Chama o método get do repositório
     }
 
     /**
@@ -43,7 +65,38 @@ public class ClienteController {
      * Retorna uma lista de clientes com base em um filtro (pode ser vazio).
      */
     public List<Cliente> getAll(String filtro) {
-        return service.getAll(filtro); // Chama o método getAll do repositório
+        return leituras.executar(() -> service.getAll(filtro)); // Chama o método getAll do repositório
+    }
+
+    /**
+     * Simula o endpoint GET /clientes?filtro=xyz&pagina=0&tamanho=50
+     * Retorna uma página da listagem, ordenada por ID.
+     */
+    public List<Cliente> getAll(String filtro, int pagina, int tamanhoPagina) {
+        return leituras.executar(() -> service.getAll(filtro, pagina, tamanhoPagina)); // Chama o getAll paginado do repositório
+    }
+
+    /**
+     * Mesmo que get(id), informando se o cliente pode estar desatualizado
+     * (o repositório resiliente devolve o último valor conhecido quando o banco não responde a tempo).
+     * Um endpoint HTTP usaria o indicador para responder com o cabeçalho "Warning: 110" (resposta velha).
+     */
+    public Leitura<Cliente> ler(Long id) {
+        return leituras.executar(() -> service.ler(id));
+    }
+
+    /**
+     * Mesmo que getAll(filtro), informando se a lista pode estar desatualizada.
+     */
+    public Leitura<List<Cliente>> lerTodos(String filtro) {
+        return leituras.executar(() -> service.lerTodos(filtro));
+    }
+
+    /**
+     * Mesmo que getAll(filtro, pagina, tamanhoPagina), informando se a página pode estar desatualizada.
+     */
+    public Leitura<List<Cliente>> lerTodos(String filtro, int pagina, int tamanhoPagina) {
+        return leituras.executar(() -> service.lerTodos(filtro, pagina, tamanhoPagina));
     }
 
     /**
@@ -51,7 +104,63 @@ public class ClienteController {
      * Atualiza os dados de um cliente com base no ID e no formulário recebido.
      */
     public Cliente update(Long id, ClienteForm form) {
-        return service.update(id, form); // Chama o método update do repositório
+        return escritas.executar(() -> service.update(id, form)); // Chama o método update do repositório
+    }
+
+    /**
+     * Simula o endpoint PUT /clientes/{id} com cabeçalho If-Match
+     * Atualiza o cliente somente se ele ainda estiver na versão lida pelo usuário.
+     * Em caso de edição concorrente, lança ConflitoVersaoException com o estado atual.
+     */
+    public Cliente update(Long id, ClienteForm form, Long versao) {
+        return escritas.executar(() -> service.update(id, form, versao)); // Chama o update condicional do repositório
+    }
+
+    /**
+     * Atualização otimista com nova tentativa automática.
+     * Quando a versão mudou, a função de mesclagem recebe o cliente atual e o formulário do usuário
+     * e devolve o formulário a ser gravado sobre a nova versão (ou null para desistir e propagar o conflito).
+     */
+    public Cliente update(Long id, ClienteForm form, Long versao, int tentativas,
+                          BiFunction<Cliente, ClienteForm, ClienteForm> mesclar) {
+        // Todas as tentativas usam a mesma vaga de escrita
+        return escritas.executar(() -> atualizarComTentativas(id, form, versao, tentativas, mesclar));
+    }
+
+    private Cliente atualizarComTentativas(Long id, ClienteForm form, Long versao, int tentativas,
+                                           BiFunction<Cliente, ClienteForm, ClienteForm> mesclar) {
+        ClienteForm atualForm = form;
+        Long atualVersao = versao;
+
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                return service.update(id, atualForm, atualVersao);
+            } catch (ConflitoVersaoException conflito) {
+                if (tentativa >= tentativas) throw conflito; // Esgotou as tentativas
+
+                ClienteForm mesclado = mesclar.apply(conflito.getAtual(), atualForm);
+                if (mesclado == null) throw conflito; // O chamador preferiu não sobrescrever
+
+                atualForm = mesclado;
+                atualVersao = conflito.getAtual().getVersao(); // Tenta de novo sobre a versão mais recente
+            }
+        }
+    }
+
+    /**
+     * Simula o endpoint PUT /clientes?email=xyz (sincronização de parceiros)
+     * Cria o cliente ou atualiza o existente com o mesmo email, em um único comando.
+     */
+    public ResultadoUpsert createOrUpdate(ClienteForm form) {
+        return escritas.executar(() -> service.createOrUpdate(form)); // Chama o upsert do repositório
+    }
+
+    /**
+     * Simula o endpoint PUT /clientes/lote
+     * Upsert por email de vários clientes em um único lote; o resultado segue a ordem da lista.
+     */
+    public List<ResultadoUpsert> upsertAll(List<ClienteForm> forms) {
+        return escritas.executar(() -> service.upsertAll(forms)); // Chama o upsert em lote do repositório
     }
 
     /**
@@ -59,6 +168,20 @@ public class ClienteController {
      * Remove um cliente do banco de dados com base no ID.
      */
     public void delete(Long id) {
-        service.delete(id); // Chama o método delete do repositório
+        escritas.executar(() -> service.delete(id)); // Chama o método delete do repositório
+    }
+
+    /**
+     * Métricas do controle de admissão das leituras (limite, em execução, na fila, rejeitadas).
+     */
+    public LimitadorConcorrencia.Metricas getMetricasLeitura() {
+        return leituras.getMetricas();
+    }
+
+    /**
+     * Métricas do controle de admissão das escritas.
+     */
+    public LimitadorConcorrencia.Metricas getMetricasEscrita() {
+        return escritas.getMetricas();
     }
 }
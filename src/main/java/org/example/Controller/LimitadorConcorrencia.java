@@ -0,0 +1,174 @@
+package org.example.Controller; // Define que esta classe está no pacote de controle (Controller)
+
+import org.example.Exception.SobrecargaException; // Importa a exceção lançada quando a requisição é recusada
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Controle de admissão: limita quantas operações rodam ao mesmo tempo e quantas podem esperar na fila.
+ *
+ * O limite é adaptativo (no estilo do algoritmo "gradient"): compara a latência recente com a
+ * latência de referência de longo prazo. Quando a latência sobe (o banco ficou lento), o limite
+ * diminui; quando volta ao normal, ele cresce de novo. Quem não consegue vaga dentro do tempo
+ * máximo de fila recebe SobrecargaException na hora, em vez de ficar preso esperando o banco.
+ */
+public class LimitadorConcorrencia {
+
+    private static final double SUAVIZACAO = 0.2;          // Peso do novo limite calculado a cada amostra
+    private static final double ALFA_LONGO_PRAZO = 1.0 / 500; // Média móvel da latência de referência
+
+    private final String nome;
+    private final int limiteMinimo;
+    private final int limiteMaximo;
+    private final int tamanhoFila;
+    private final long timeoutFilaNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition vagaLiberada = lock.newCondition();
+
+    private double limite;          // Limite atual de operações simultâneas
+    private int emExecucao;         // Operações que já passaram pela admissão
+    private int emFila;             // Operações esperando vaga
+    private double latenciaLongoPrazo = -1; // Latência de referência (ns)
+
+    private final LongAdder admitidas = new LongAdder();
+    private final LongAdder rejeitadas = new LongAdder();
+
+    // Retrato das métricas em um instante
+    public record Metricas(String nome, int limite, int emExecucao, int emFila, long admitidas, long rejeitadas) {
+    }
+
+    /**
+     * @param nome           identificação nas métricas e nas mensagens de erro
+     * @param limiteInicial  operações simultâneas permitidas no início
+     * @param limiteMinimo   o limite adaptativo nunca fica abaixo deste valor
+     * @param limiteMaximo   o limite adaptativo nunca passa deste valor
+     * @param tamanhoFila    quantas operações podem esperar por vaga (além disso, recusa na hora)
+     * @param timeoutFila    tempo máximo de espera por vaga
+     */
+    public LimitadorConcorrencia(String nome, int limiteInicial, int limiteMinimo, int limiteMaximo,
+                                 int tamanhoFila, long timeoutFila, TimeUnit unidade) {
+        if (limiteMinimo <= 0 || limiteMinimo > limiteInicial || limiteInicial > limiteMaximo) {
+            throw new IllegalArgumentException("Limites inválidos: mínimo <= inicial <= máximo e mínimo > 0");
+        }
+        this.nome = nome;
+        this.limite = limiteInicial;
+        this.limiteMinimo = limiteMinimo;
+        this.limiteMaximo = limiteMaximo;
+        this.tamanhoFila = tamanhoFila;
+        this.timeoutFilaNanos = unidade.toNanos(timeoutFila);
+    }
+
+    /**
+     * Executa a operação se houver vaga (esperando no máximo o timeout da fila);
+     * caso contrário lança SobrecargaException sem chamar a operação.
+     */
+    public <T> T executar(Supplier<T> operacao) {
+        adquirir();
+        long inicio = System.nanoTime();
+        try {
+            return operacao.get();
+        } finally {
+            liberar(System.nanoTime() - inicio);
+        }
+    }
+
+    public void executar(Runnable operacao) {
+        executar(() -> {
+            operacao.run();
+            return null;
+        });
+    }
+
+    public Metricas getMetricas() {
+        lock.lock();
+        try {
+            return new Metricas(nome, (int) limite, emExecucao, emFila, admitidas.sum(), rejeitadas.sum());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void adquirir() {
+        lock.lock();
+        try {
+            // Só passa direto se não houver ninguém na fila, para não furar a ordem de chegada
+            if (emFila == 0 && emExecucao < (int) limite) {
+                emExecucao++;
+                admitidas.increment();
+                return;
+            }
+            if (emFila >= tamanhoFila) {
+                rejeitadas.increment();
+                throw new SobrecargaException(nome, "fila cheia (" + tamanhoFila + ")");
+            }
+
+            emFila++;
+            try {
+                long restante = timeoutFilaNanos;
+                while (emExecucao >= (int) limite) {
+                    if (restante <= 0) {
+                        rejeitadas.increment();
+                        throw new SobrecargaException(nome, "tempo de espera na fila esgotado ("
+                                + TimeUnit.NANOSECONDS.toMillis(timeoutFilaNanos) + " ms)");
+                    }
+                    restante = vagaLiberada.awaitNanos(restante);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rejeitadas.increment();
+                throw new SobrecargaException(nome, "espera interrompida");
+            } finally {
+                emFila--;
+            }
+
+            emExecucao++;
+            admitidas.increment();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void liberar(long latenciaNanos) {
+        lock.lock();
+        try {
+            boolean saturado = emExecucao >= limite / 2; // Só aprende com amostras em que o limite estava sendo usado
+            emExecucao--;
+            ajustarLimite(latenciaNanos, saturado);
+            vagaLiberada.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Chamado com o lock adquirido
+    private void ajustarLimite(long latenciaNanos, boolean saturado) {
+        if (latenciaLongoPrazo < 0) {
+            latenciaLongoPrazo = latenciaNanos;
+            return;
+        }
+        latenciaLongoPrazo += (latenciaNanos - latenciaLongoPrazo) * ALFA_LONGO_PRAZO;
+
+        // Se a latência de referência ficou muito acima da atual, ela se aproxima mais rápido
+        // (evita que um período lento mantenha o limite baixo por tempo demais)
+        if (latenciaLongoPrazo > 2 * latenciaNanos) {
+            latenciaLongoPrazo = (latenciaLongoPrazo + latenciaNanos) / 2;
+        }
+
+        // Gradiente entre 0,5 e 1: 1 quando a latência está normal, menor quando ela sobe
+        double gradiente = Math.max(0.5, Math.min(1.0, latenciaLongoPrazo / Math.max(1, latenciaNanos)));
+        double novoLimite = limite * gradiente + Math.sqrt(limite); // A raiz dá folga para crescer
+
+        if (novoLimite > limite && !saturado) return; // Sem demanda, não há evidência para aumentar
+
+        limite = limite * (1 - SUAVIZACAO) + novoLimite * SUAVIZACAO;
+        limite = Math.max(limiteMinimo, Math.min(limiteMaximo, limite));
+
+        // Se o limite aumentou, acorda quem está na fila para ocupar as novas vagas
+        if ((int) limite > emExecucao + 1) vagaLiberada.signalAll();
+    }
+}
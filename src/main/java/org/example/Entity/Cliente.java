@@ -2,13 +2,20 @@ package org.example.Entity; // Define o pacote onde a classe está localizada
 
 // Importações das anotações do Jakarta Persistence (JPA)
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault; // Define o valor padrão da coluna na geração do schema
+import org.hibernate.annotations.CurrentTimestamp; // Data/hora gerada na inserção e na alteração
+import org.hibernate.annotations.SourceType; // Origem do relógio (JVM ou banco)
+import org.hibernate.generator.EventType; // Eventos em que a data/hora é gerada
+
+import java.time.LocalDateTime; // Data e hora da última atividade do cliente
 
 /**
  * A classe Cliente representa a entidade "cliente" no banco de dados.
  * Cada instância desta classe corresponde a um registro na tabela "cliente".
  */
 @Entity // Indica que esta classe é uma entidade JPA
-@Table(name = "cliente") // Define o nome da tabela correspondente no banco de dados
+@Table(name = "cliente", // Define o nome da tabela correspondente no banco de dados
+        indexes = @Index(name = "idx_cliente_ultima_atividade", columnList = "ultima_atividade")) // Usado pelo arquivamento
 public class Cliente {
 
     @Id // Define que este campo é a chave primária da tabela
@@ -25,6 +32,18 @@ public class Cliente {
     @Column(nullable = false) // Campo obrigatório (não pode ser nulo)
     private String telefone; // Telefone do cliente
 
+    @Version // Controle de concorrência otimista: incrementado a cada atualização
+    @ColumnDefault("0") // Linhas antigas (ou inseridas fora do Hibernate) começam na versão 0
+    @Column(nullable = false) // Campo obrigatório (não pode ser nulo)
+    private Long versao; // Versão do registro, usada para detectar edições concorrentes
+
+    // Preenchida pelo relógio do banco (CURRENT_TIMESTAMP) sempre que o Hibernate insere ou altera o cliente,
+    // o mesmo relógio usado pela tela Swing, pelo upsert e pelo corte do arquivamento
+    @CurrentTimestamp(event = {EventType.INSERT, EventType.UPDATE}, source = SourceType.DB)
+    @ColumnDefault("CURRENT_TIMESTAMP") // Linhas antigas (ou inseridas fora do Hibernate) recebem a data da inclusão da coluna
+    @Column(name = "ultima_atividade", nullable = false) // Campo obrigatório (não pode ser nulo)
+    private LocalDateTime ultimaAtividade; // Última vez que o cliente foi criado, alterado ou lido; clientes inativos são arquivados
+
     // Getters e Setters
     public Long getIdCliente() {
         return idCliente;
@@ -42,6 +61,14 @@ public class Cliente {
         return telefone;
     }
 
+    public Long getVersao() {
+        return versao;
+    }
+
+    public LocalDateTime getUltimaAtividade() {
+        return ultimaAtividade;
+    }
+
     // Setters
     public void setIdCliente(Long idCliente) {
         this.idCliente = idCliente;
@@ -59,5 +86,13 @@ public class Cliente {
         this.telefone = telefone;
     }
 
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
+    public void setUltimaAtividade(LocalDateTime ultimaAtividade) {
+        this.ultimaAtividade = ultimaAtividade;
+    }
+
 
 }
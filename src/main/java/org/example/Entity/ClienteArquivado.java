@@ -0,0 +1,81 @@
+package org.example.Entity; // Define o pacote onde a classe está localizada
+
+// Importações das anotações do Jakarta Persistence (JPA)
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime; // Datas de última atividade e de arquivamento
+
+/**
+ * A classe ClienteArquivado representa a tabela "cliente_arquivo", que guarda os clientes
+ * sem atividade há muito tempo. Manter esses registros fora da tabela "cliente" deixa
+ * a tabela principal e os seus índices pequenos o bastante para ficarem em memória.
+ * O ID é o mesmo que o cliente tinha na tabela principal.
+ */
+@Entity // Indica que esta classe é uma entidade JPA
+@Table(name = "cliente_arquivo", // Define o nome da tabela correspondente no banco de dados
+        indexes = @Index(name = "idx_cliente_arquivo_email", columnList = "email")) // Consulta de email já usado
+public class ClienteArquivado {
+
+    @Id // Mesmo ID da tabela cliente (não é gerado aqui)
+    @Column(name = "id_cliente") // Define o nome da coluna no banco de dados
+    private Long idCliente;
+
+    @Column(nullable = false) // Campo obrigatório (não pode ser nulo)
+    private String nome;
+
+    @Column(nullable = false) // Campo obrigatório; a unicidade entre as duas tabelas é conferida pelo ClienteDAO
+    private String email;
+
+    @Column(nullable = false) // Campo obrigatório (não pode ser nulo)
+    private String telefone;
+
+    @Column(nullable = false) // Versão que o cliente tinha ao ser arquivado
+    private Long versao;
+
+    @Column(name = "ultima_atividade", nullable = false) // Última atividade antes do arquivamento
+    private LocalDateTime ultimaAtividade;
+
+    @Column(name = "arquivado_em", nullable = false) // Quando o cliente foi movido para o arquivo
+    private LocalDateTime arquivadoEm;
+
+    // Converte para a entidade Cliente (sem persistir), para exibição
+    public Cliente paraCliente() {
+        Cliente cliente = new Cliente();
+        cliente.setIdCliente(idCliente);
+        cliente.setNome(nome);
+        cliente.setEmail(email);
+        cliente.setTelefone(telefone);
+        cliente.setVersao(versao);
+        cliente.setUltimaAtividade(ultimaAtividade);
+        return cliente;
+    }
+
+    // Getters
+    public Long getIdCliente() {
+        return idCliente;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getTelefone() {
+        return telefone;
+    }
+
+    public Long getVersao() {
+        return versao;
+    }
+
+    public LocalDateTime getUltimaAtividade() {
+        return ultimaAtividade;
+    }
+
+    public LocalDateTime getArquivadoEm() {
+        return arquivadoEm;
+    }
+}
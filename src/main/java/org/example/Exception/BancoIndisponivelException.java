@@ -0,0 +1,17 @@
+package org.example.Exception; // Define o pacote das exceções da aplicação
+
+/**
+ * Lançada por uma leitura quando o banco não respondeu dentro do orçamento de tempo
+ * (ou o circuito está aberto) e não há nenhum valor anterior em cache para devolver.
+ * Equivale a um HTTP 503; o chamador pode tentar novamente mais tarde.
+ */
+public class BancoIndisponivelException extends RuntimeException {
+
+    public BancoIndisponivelException(String motivo) {
+        super("Banco de dados indisponível: " + motivo);
+    }
+
+    public BancoIndisponivelException(String motivo, Throwable causa) {
+        super("Banco de dados indisponível: " + motivo, causa);
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.Exception; // Define o pacote das exceções da aplicação
+
+import org.example.Entity.Cliente; // Importa a entidade Cliente (estado atual no banco)
+
+/**
+ * Lançada quando uma atualização condicional encontra o cliente em uma versão diferente
+ * da que o chamador leu, ou seja, outra pessoa alterou o registro nesse meio-tempo.
+ * Carrega o estado atual do banco para que o chamador possa mesclar e tentar de novo.
+ */
+public class ConflitoVersaoException extends RuntimeException {
+
+    private final Long versaoEsperada; // Versão que o chamador acreditava ser a atual
+    private final Cliente atual;       // Cliente como está gravado no banco agora
+
+    public ConflitoVersaoException(Long id, Long versaoEsperada, Cliente atual) {
+        super("Cliente com ID " + id + " foi alterado por outro usuário (versão esperada "
+                + versaoEsperada + ", versão atual " + atual.getVersao() + ").");
+        this.versaoEsperada = versaoEsperada;
+        this.atual = atual;
+    }
+
+    public Long getVersaoEsperada() {
+        return versaoEsperada;
+    }
+
+    public Cliente getAtual() {
+        return atual;
+    }
+}
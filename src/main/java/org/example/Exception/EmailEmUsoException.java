@@ -0,0 +1,26 @@
+package org.example.Exception; // Define o pacote das exceções da aplicação
+
+/**
+ * Lançada quando um email já pertence a outro cliente, inclusive a um cliente arquivado
+ * (tabela cliente_arquivo, onde o índice único da tabela principal não alcança).
+ * Também é usada quando um cliente arquivado não pode voltar à tabela principal
+ * porque o email dele passou a ser usado por outro cliente.
+ */
+public class EmailEmUsoException extends RuntimeException {
+
+    private final String email;
+
+    public EmailEmUsoException(String email, String mensagem) {
+        super(mensagem);
+        this.email = email;
+    }
+
+    public EmailEmUsoException(String email, String mensagem, Throwable causa) {
+        super(mensagem, causa);
+        this.email = email;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.Exception; // Define o pacote das exceções da aplicação
+
+/**
+ * Lançada quando o controller recusa uma requisição por excesso de carga:
+ * a fila de espera está cheia ou o tempo máximo de espera na fila acabou.
+ * Equivale a um HTTP 503; o chamador pode tentar novamente mais tarde.
+ */
+public class SobrecargaException extends RuntimeException {
+
+    private final String limitador; // Nome do limitador que recusou (ex: "leitura", "escrita")
+
+    public SobrecargaException(String limitador, String motivo) {
+        super("Sistema sobrecarregado (" + limitador + "): " + motivo);
+        this.limitador = limitador;
+    }
+
+    public String getLimitador() {
+        return limitador;
+    }
+}
@@ -10,20 +10,48 @@ import jakarta.validation.ValidatorFactory;
 import org.example.Controller.ClienteController;
 import org.example.Entity.Cliente;
 import org.example.Entity.Form.ClienteForm;
+import org.example.Exception.ConflitoVersaoException;
+import org.example.Monitoramento.ClienteRepositoryMonitorado;
 import org.example.Repository.ClienteRepository;
+import org.example.Service.ArquivamentoClientes;
 import org.example.Service.ClienteDAO;
+import org.example.Service.DeduplicadorClientes;
+import org.example.Service.ProcessadorLote;
+import org.example.Service.SnapshotClientes;
 
 // Importa classes utilitárias do Java
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import java.util.Scanner;
 import java.util.Set;
 
 public class Main { // Declara a classe principal
 
+    private static final int TAMANHO_BUFFER = 1 << 16; // Buffer de leitura/escrita do modo em lote
+
     public static void main(String[] args) { // Método principal, ponto de entrada da aplicação
+        if (args.length > 0 && args[0].equals("--lote")) { // Modo não interativo (scripts e pipes)
+            System.exit(executarLote(args));
+        }
+        if (args.length > 0 && args[0].startsWith("--snapshot-")) { // Backup/restauração binária da tabela
+            System.exit(executarSnapshot(args));
+        }
+        if (args.length > 0 && args[0].equals("--arquivar")) { // Move clientes inativos para o arquivo
+            System.exit(executarArquivamento(args));
+        }
+
         Scanner scanner = new Scanner(System.in); // Cria um Scanner para ler entradas do usuário via console
 
-        ClienteRepository repository = new ClienteDAO(); // Cria um repositório com a implementação DAO
+        ClienteRepository repository = new ClienteRepositoryMonitorado(new ClienteDAO()); // Cria um repositório com a implementação DAO (com eventos JFR)
         ClienteController controller = new ClienteController(repository); // Instancia o controller e injeta o repositório
 
         ValidatorFactory factory = Validation.buildDefaultValidatorFactory(); // Cria uma fábrica de validadores
@@ -37,6 +65,7 @@ public class Main { // Declara a classe principal
             System.out.println("2 - Listar clientes");
             System.out.println("3 - Atualizar cliente");
             System.out.println("4 - Deletar cliente");
+            System.out.println("5 - Detectar clientes duplicados");
             System.out.println("0 - Sair");
             System.out.print("Escolha uma opção: "); // Solicita a entrada da opção
 
@@ -97,6 +126,15 @@ public class Main { // Declara a classe principal
                         break;
                     }
 
+                    // Lê o cliente antes da edição: a versão lida é conferida na gravação
+                    Cliente atual = controller.get(idAtualiza);
+                    if (atual == null) {
+                        System.out.println("Cliente com ID " + idAtualiza + " não encontrado.");
+                        break;
+                    }
+                    System.out.printf("Atual: Nome: %s | Telefone: %s | Email: %s\n",
+                            atual.getNome(), atual.getTelefone(), atual.getEmail());
+
                     // Solicita e lê novos dados
                     System.out.print("Novo nome: ");
                     String novoNome = scanner.nextLine();
@@ -119,11 +157,20 @@ public class Main { // Declara a classe principal
                             System.out.println("- " + erro.getPropertyPath() + ": " + erro.getMessage());
                         }
                     } else { // Se válido
-                        Cliente atualizado = controller.update(idAtualiza, atualizaForm); // Atualiza
-                        if (atualizado != null) { // Verifica sucesso
-                            System.out.println("Cliente atualizado com sucesso!");
-                        } else {
-                            System.out.println("Cliente com ID " + idAtualiza + " não encontrado.");
+                        try {
+                            // Só grava se ninguém alterou o cliente desde a leitura acima
+                            Cliente atualizado = controller.update(idAtualiza, atualizaForm, atual.getVersao());
+                            if (atualizado != null) { // Verifica sucesso
+                                System.out.println("Cliente atualizado com sucesso!");
+                            } else {
+                                System.out.println("Cliente com ID " + idAtualiza + " não encontrado.");
+                            }
+                        } catch (ConflitoVersaoException conflito) { // Outra pessoa editou o cliente nesse meio-tempo
+                            Cliente noBanco = conflito.getAtual();
+                            System.out.println(conflito.getMessage());
+                            System.out.printf("No banco: Nome: %s | Telefone: %s | Email: %s\n",
+                                    noBanco.getNome(), noBanco.getTelefone(), noBanco.getEmail());
+                            System.out.println("Nada foi gravado. Repita a atualização para editar a versão atual.");
                         }
                     }
                     break;
@@ -133,6 +180,7 @@ public class Main { // Declara a classe principal
                     try {
                         Long idDelete = Long.parseLong(scanner.nextLine()); // Converte ID
                         controller.delete(idDelete); // Chama método de deletar
+                        System.out.println("Cliente removido com sucesso!");
                     } catch (NumberFormatException es) { // Trata erro de conversão
                         System.out.println("ID inválido.");
                     } catch (RuntimeException run) { // Trata erro do DAO
@@ -140,6 +188,31 @@ public class Main { // Declara a classe principal
                     }
                     break;
 
+                case 5: // Caso 5 - Detectar (e opcionalmente mesclar) clientes duplicados
+                    DeduplicadorClientes deduplicador = new DeduplicadorClientes();
+                    DeduplicadorClientes.Relatorio relatorio = deduplicador.detectar(); // Varre a tabela em paralelo
+                    System.out.printf("Linhas lidas: %d | Chaves distintas: %d | Grupos: %d | Duplicados: %d\n",
+                            relatorio.linhasLidas(), relatorio.chavesDistintas(),
+                            relatorio.grupos().size(), relatorio.duplicados());
+
+                    int exibidos = 0;
+                    for (DeduplicadorClientes.Grupo grupo : relatorio.grupos()) { // Mostra os maiores grupos
+                        if (++exibidos > 20) {
+                            System.out.println("...");
+                            break;
+                        }
+                        System.out.println("- " + grupo.criterio() + ": " + grupo.ids());
+                    }
+
+                    if (!relatorio.grupos().isEmpty()) {
+                        System.out.print("Mesclar mantendo o cliente mais antigo de cada grupo? (s/n): ");
+                        if (scanner.nextLine().trim().equalsIgnoreCase("s")) {
+                            int removidos = deduplicador.mesclar(relatorio); // Remove os duplicados
+                            System.out.println(removidos + " cliente(s) duplicado(s) removido(s).");
+                        }
+                    }
+                    break;
+
                 case 0: // Caso 0 - Sair
                     System.out.println("Encerrando..."); // Mensagem de saída
                     break;
@@ -151,4 +224,126 @@ public class Main { // Declara a classe principal
 
         } while (opcao != 0); // Executa enquanto a opção for diferente de 0
     }
+
+    /**
+     * Modo em lote: java org.example.Main --lote [arquivo|-] [--tamanho-lote N]
+     * Lê comandos do arquivo (ou da entrada padrão) e escreve um resultado por linha na saída padrão.
+     * Retorna o código de saída do processo: 0 se todos os comandos deram certo, 1 se algum falhou.
+     */
+    private static int executarLote(String[] args) {
+        String arquivo = "-";  // "-" representa a entrada padrão
+        int tamanhoLote = 500; // Comandos por transação
+
+        try {
+            for (int i = 1; i < args.length; i++) {
+                if (args[i].equals("--tamanho-lote")) {
+                    if (i + 1 >= args.length) throw new IllegalArgumentException("Valor ausente para --tamanho-lote");
+                    tamanhoLote = positivo("--tamanho-lote", args[++i]);
+                } else {
+                    arquivo = args[i];
+                }
+            }
+        } catch (IllegalArgumentException e) { // Inclui NumberFormatException
+            System.err.println(e.getMessage());
+            System.err.println("Uso: --lote [arquivo|-] [--tamanho-lote N]");
+            return 2;
+        }
+
+        // O log de SQL iria para a saída padrão e misturaria com os resultados
+        System.setProperty("hibernate.show_sql", "false");
+        // Agrupa os UPDATE/DELETE de cada lote em poucas idas ao banco (INSERT com IDENTITY não é agrupado)
+        System.setProperty("hibernate.jdbc.batch_size", "100");
+        System.setProperty("hibernate.order_updates", "true");
+
+        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
+        ProcessadorLote processador = new ProcessadorLote(tamanhoLote, factory.getValidator());
+        long inicio = System.nanoTime();
+
+        try (BufferedReader entrada = arquivo.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), TAMANHO_BUFFER)
+                : Files.newBufferedReader(Path.of(arquivo), StandardCharsets.UTF_8);
+             Writer saida = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), TAMANHO_BUFFER)) {
+            processador.processar(entrada, saida);
+        } catch (IOException e) {
+            System.err.println("Erro de E/S no modo em lote: " + e.getMessage());
+            return 2;
+        }
+
+        // O resumo vai para a saída de erro para não se misturar aos resultados
+        System.err.printf("%d comando(s): %d ok, %d erro(s) em %d ms\n",
+                processador.getSucessos() + processador.getFalhas(), processador.getSucessos(),
+                processador.getFalhas(), (System.nanoTime() - inicio) / 1_000_000);
+        return processador.getFalhas() == 0 ? 0 : 1;
+    }
+
+    /**
+     * Snapshot: java org.example.Main --snapshot-exportar ARQUIVO
+     *           java org.example.Main --snapshot-restaurar ARQUIVO [--substituir]
+     */
+    private static int executarSnapshot(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Informe o arquivo do snapshot.");
+            return 2;
+        }
+        System.setProperty("hibernate.show_sql", "false"); // Evita registrar cada INSERT da restauração
+
+        SnapshotClientes snapshot = new SnapshotClientes();
+        Path arquivo = Path.of(args[1]);
+        try {
+            SnapshotClientes.Resumo resumo;
+            if (args[0].equals("--snapshot-exportar")) {
+                resumo = snapshot.exportar(arquivo);
+            } else if (args[0].equals("--snapshot-restaurar")) {
+                boolean substituir = args.length > 2 && args[2].equals("--substituir");
+                resumo = snapshot.restaurar(arquivo, substituir);
+            } else {
+                System.err.println("Opção desconhecida: " + args[0]);
+                return 2;
+            }
+            System.out.printf("%d cliente(s), %d bytes em %d ms\n", resumo.linhas(), resumo.bytes(), resumo.milissegundos());
+            return 0;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Erro no snapshot: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * Arquivamento: java org.example.Main --arquivar DIAS [--tamanho-lote N]
+     * Move para cliente_arquivo os clientes sem atividade há mais de DIAS dias.
+     */
+    private static int executarArquivamento(String[] args) {
+        int dias;
+        int tamanhoLote = 1_000;
+        try {
+            if (args.length != 2 && !(args.length == 4 && args[2].equals("--tamanho-lote"))) {
+                throw new IllegalArgumentException("Parâmetros inválidos para --arquivar");
+            }
+            dias = Integer.parseInt(args[1]);
+            if (dias < 0) throw new IllegalArgumentException("DIAS não pode ser negativo");
+            if (args.length == 4) tamanhoLote = positivo("--tamanho-lote", args[3]);
+        } catch (IllegalArgumentException e) { // Inclui NumberFormatException
+            System.err.println(e.getMessage());
+            System.err.println("Uso: --arquivar DIAS [--tamanho-lote N]");
+            return 2;
+        }
+        System.setProperty("hibernate.show_sql", "false");
+
+        long inicio = System.nanoTime();
+        try {
+            long movidos = new ArquivamentoClientes(Duration.ofDays(dias), tamanhoLote).arquivarTudo();
+            System.out.printf("%d cliente(s) arquivado(s) em %d ms\n", movidos, (System.nanoTime() - inicio) / 1_000_000);
+            return 0;
+        } catch (RuntimeException e) {
+            System.err.println("Erro no arquivamento: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    // Lê um inteiro maior que zero; lança IllegalArgumentException (ou NumberFormatException) se não for
+    private static int positivo(String nome, String valor) {
+        int numero = Integer.parseInt(valor);
+        if (numero <= 0) throw new IllegalArgumentException(nome + " deve ser maior que zero");
+        return numero;
+    }
 }
@@ -0,0 +1,121 @@
+package org.example.Monitoramento; // Define o pacote de monitoramento
+
+import org.example.Entity.Cliente;
+import org.example.Entity.Form.ClienteForm;
+import org.example.Repository.ClienteRepository;
+import org.example.Repository.Leitura;
+import org.example.Repository.ResultadoUpsert;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Decorador de ClienteRepository que emite um {@link OperacaoClienteEvento} do JFR por operação,
+ * com a duração, os comandos SQL, as conexões obtidas e as linhas envolvidas.
+ * Quando a gravação do JFR está desligada, o custo é só a leitura de dois contadores.
+ */
+public class ClienteRepositoryMonitorado implements ClienteRepository {
+
+    private final ClienteRepository repository; // Implementação real (ex: ClienteDAO)
+
+    public ClienteRepositoryMonitorado(ClienteRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public Cliente create(ClienteForm form) {
+        return medir("create", () -> repository.create(form), cliente -> 1);
+    }
+
+    @Override
+    public Cliente get(Long id) {
+        return medir("get", () -> repository.get(id), cliente -> cliente == null ? 0 : 1);
+    }
+
+    @Override
+    public List<Cliente> getAll(String filtro) {
+        return medir("getAll", () -> repository.getAll(filtro), List::size);
+    }
+
+    @Override
+    public List<Cliente> getAll(String filtro, int pagina, int tamanhoPagina) {
+        return medir("getAllPaginado", () -> repository.getAll(filtro, pagina, tamanhoPagina), List::size);
+    }
+
+    @Override
+    public Cliente update(Long id, ClienteForm form) {
+        return medir("update", () -> repository.update(id, form), cliente -> cliente == null ? 0 : 1);
+    }
+
+    @Override
+    public Cliente update(Long id, ClienteForm form, Long versaoEsperada) {
+        return medir("updateVersionado", () -> repository.update(id, form, versaoEsperada), cliente -> cliente == null ? 0 : 1);
+    }
+
+    @Override
+    public ResultadoUpsert createOrUpdate(ClienteForm form) {
+        return medir("createOrUpdate", () -> repository.createOrUpdate(form), resultado -> 1);
+    }
+
+    @Override
+    public List<ResultadoUpsert> upsertAll(List<ClienteForm> forms) {
+        return medir("upsertAll", () -> repository.upsertAll(forms), List::size);
+    }
+
+    @Override
+    public void delete(Long id) {
+        medir("delete", () -> {
+            repository.delete(id);
+            return null;
+        }, nada -> 1);
+    }
+
+    @Override
+    public Iterable<Cliente> listar() {
+        return medir("listar", repository::listar,
+                clientes -> clientes instanceof Collection<?> colecao ? colecao.size() : 0);
+    }
+
+    // As leituras com indicação de desatualização repassam o indicador do repositório decorado
+
+    @Override
+    public Leitura<Cliente> ler(Long id) {
+        return medir("get", () -> repository.ler(id), leitura -> leitura.valor() == null ? 0 : 1);
+    }
+
+    @Override
+    public Leitura<List<Cliente>> lerTodos(String filtro) {
+        return medir("getAll", () -> repository.lerTodos(filtro), leitura -> leitura.valor().size());
+    }
+
+    @Override
+    public Leitura<List<Cliente>> lerTodos(String filtro, int pagina, int tamanhoPagina) {
+        return medir("getAllPaginado", () -> repository.lerTodos(filtro, pagina, tamanhoPagina),
+                leitura -> leitura.valor().size());
+    }
+
+    private <T> T medir(String operacao, Supplier<T> chamada, ToLongFunction<T> linhas) {
+        OperacaoClienteEvento evento = new OperacaoClienteEvento();
+        if (!evento.isEnabled()) return chamada.get(); // JFR desligado: sem custo adicional
+
+        ContadorSql.Marca inicio = ContadorSql.marcar();
+        evento.begin();
+        try {
+            T resultado = chamada.get();
+            evento.linhas = linhas.applyAsLong(resultado);
+            evento.sucesso = true;
+            return resultado;
+        } finally {
+            evento.end();
+            if (evento.shouldCommit()) {
+                ContadorSql.Marca custo = inicio.desde();
+                evento.operacao = operacao;
+                evento.comandosSql = custo.comandos();
+                evento.conexoes = custo.conexoes();
+                evento.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.Monitoramento; // Define o pacote de monitoramento
+
+import org.hibernate.SessionEventListener; // Recebe eventos de JDBC de cada sessão do Hibernate
+
+/**
+ * Conta, por thread, quantos comandos SQL foram enviados ao banco e quantas conexões foram obtidas.
+ *
+ * É registrado em todas as sessões pela propriedade "hibernate.session.events.auto" do hibernate.cfg.xml.
+ * Como cada operação do ClienteDAO roda inteira na thread que a chamou, basta comparar
+ * duas marcações ({@link #marcar()}) para saber o custo de uma operação em idas ao banco.
+ */
+public class ContadorSql implements SessionEventListener {
+
+    // Contadores da thread atual; só crescem, por isso as medições usam diferenças entre marcações
+    private static final ThreadLocal<long[]> CONTADORES = ThreadLocal.withInitial(() -> new long[2]);
+    private static final int COMANDOS = 0;
+    private static final int CONEXOES = 1;
+
+    // Retrato dos contadores da thread em um instante
+    public record Marca(long comandos, long conexoes) {
+
+        // Diferença entre agora e esta marcação
+        public Marca desde() {
+            Marca agora = marcar();
+            return new Marca(agora.comandos - comandos, agora.conexoes - conexoes);
+        }
+    }
+
+    public static Marca marcar() {
+        long[] contadores = CONTADORES.get();
+        return new Marca(contadores[COMANDOS], contadores[CONEXOES]);
+    }
+
+    /**
+     * Registra comandos enviados por JDBC puro (Session.doWork), que o Hibernate não enxerga.
+     */
+    public static void registrarComandos(int quantidade) {
+        CONTADORES.get()[COMANDOS] += quantidade;
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        CONTADORES.get()[COMANDOS]++; // Um comando enviado ao banco
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        CONTADORES.get()[COMANDOS]++; // Um lote JDBC é uma única ida ao banco
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd() {
+        CONTADORES.get()[CONEXOES]++;
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.Monitoramento; // Define o pacote de monitoramento
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento do JDK Flight Recorder emitido a cada operação do ClienteRepository.
+ * A duração é registrada pelo próprio JFR (begin/commit). Para gravar:
+ *   java -XX:StartFlightRecording=filename=cadastro.jfr ...
+ * e abrir o arquivo no JDK Mission Control, filtrando por "Cadastro".
+ */
+@Name("org.example.OperacaoCliente")
+@Label("Operação de Cliente")
+@Category({"Cadastro", "Repositório"})
+@Description("Operação do ClienteRepository com o número de comandos SQL, conexões e linhas envolvidas")
+public class OperacaoClienteEvento extends Event {
+
+    @Label("Operação")
+    String operacao;
+
+    @Label("Comandos SQL")
+    long comandosSql;
+
+    @Label("Conexões obtidas")
+    long conexoes;
+
+    @Label("Linhas")
+    @Description("Linhas criadas, lidas, alteradas ou removidas pela operação")
+    long linhas;
+
+    @Label("Sucesso")
+    boolean sucesso;
+}
@@ -18,12 +18,41 @@ public interface ClienteRepository {
     // Retorna uma lista de clientes, com possibilidade de aplicar um filtro (ex: por nome ou email)
     List<Cliente> getAll(String filtro);
 
+    // Mesmo que getAll(filtro), uma página por vez (ordenado por ID; a primeira página é a 0)
+    List<Cliente> getAll(String filtro, int pagina, int tamanhoPagina);
+
     // Atualiza os dados de um cliente existente a partir do ID e de um formulário com os novos dados
     Cliente update(Long id, ClienteForm form);
 
+    // Atualiza o cliente somente se ele ainda estiver na versão informada (concorrência otimista);
+    // retorna null se o ID não existir e lança ConflitoVersaoException se a versão mudou
+    Cliente update(Long id, ClienteForm form, Long versaoEsperada);
+
+    // Insere o cliente ou, se o email já existir, atualiza nome e telefone, em um único comando
+    ResultadoUpsert createOrUpdate(ClienteForm form);
+
+    // Mesmo que createOrUpdate para vários clientes, em um único lote; o resultado segue a ordem da lista
+    List<ResultadoUpsert> upsertAll(List<ClienteForm> forms);
+
     // Remove um cliente do banco de dados com base no seu ID
     void delete(Long id);
 
     // Retorna todos os clientes cadastrados; útil para iteração com for-each
     Iterable<Cliente> listar();
+
+    // Mesmo que get(id), informando se o valor pode estar desatualizado (ex: veio de um cache local porque
+    // o banco está lento ou fora do ar). Quem sempre lê do banco não precisa sobrescrever
+    default Leitura<Cliente> ler(Long id) {
+        return new Leitura<>(get(id), false);
+    }
+
+    // Mesmo que getAll(filtro), informando se a lista pode estar desatualizada
+    default Leitura<List<Cliente>> lerTodos(String filtro) {
+        return new Leitura<>(getAll(filtro), false);
+    }
+
+    // Mesmo que getAll(filtro, pagina, tamanhoPagina), informando se a página pode estar desatualizada
+    default Leitura<List<Cliente>> lerTodos(String filtro, int pagina, int tamanhoPagina) {
+        return new Leitura<>(getAll(filtro, pagina, tamanhoPagina), false);
+    }
 }
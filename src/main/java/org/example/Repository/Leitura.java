@@ -0,0 +1,5 @@
+package org.example.Repository;
+
+// Resultado de uma leitura resiliente: o valor e se ele veio do cache local por o banco estar lento ou fora do ar
+public record Leitura<T>(T valor, boolean desatualizado) {
+}
@@ -0,0 +1,14 @@
+package org.example.Repository;
+
+// Resultado de um upsert por email: o cliente foi inserido ou um cliente existente foi atualizado
+public enum ResultadoUpsert {
+
+    // Não havia cliente com o email; uma nova linha foi criada
+    INSERIDO,
+
+    // Já havia cliente com o email; nome e telefone foram atualizados
+    ATUALIZADO,
+
+    // O driver executou o comando mas não informou o resultado por linha (ex: envio em lote "bulk")
+    NAO_INFORMADO
+}
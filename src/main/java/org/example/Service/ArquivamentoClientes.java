@@ -0,0 +1,188 @@
+package org.example.Service;
+
+import org.example.Entity.Cliente;
+import org.example.Exception.EmailEmUsoException;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Move clientes sem atividade recente da tabela "cliente" (quente) para "cliente_arquivo" (fria).
+ *
+ * Cada lote roda em uma transação curta: trava um bloco de IDs inativos (SELECT ... FOR UPDATE),
+ * copia as linhas desse intervalo de IDs para o arquivo e as remove da tabela principal. Assim, um
+ * update concorrente espera o fim do lote em vez de ser perdido. O ClienteDAO traz o cliente de volta
+ * para a tabela principal quando ele é acessado (ver {@link #restaurar(Session, Long)}).
+ *
+ * O índice único de email só vale dentro de cada tabela. Por isso, quem grava um email novo consulta
+ * antes o arquivo com {@link #arquivadosPorEmail(Session, Collection)}.
+ *
+ * Atividade é criar, alterar ou ler o cliente pelo ID; todas as datas (ultima_atividade, o corte e
+ * arquivado_em) vêm do relógio do banco, o mesmo usado pela tela Swing.
+ *
+ * O arquivamento é um comando manual (Main --arquivar DIAS), para ser agendado fora da aplicação (ex: cron).
+ */
+public class ArquivamentoClientes {
+
+    private static final int EMAILS_POR_CONSULTA = 1_000; // Abaixo do limite de parâmetros por comando
+    // Intervalo mínimo entre duas gravações de atividade por leitura do mesmo cliente
+    private static final Duration INTERVALO_LEITURA = Duration.ofHours(1);
+
+    private final Duration inatividade; // Tempo sem atividade para o cliente ser considerado frio
+    private final int tamanhoLote;      // Clientes movidos por transação
+
+    public ArquivamentoClientes(Duration inatividade, int tamanhoLote) {
+        if (tamanhoLote <= 0) throw new IllegalArgumentException("O tamanho do lote deve ser maior que zero");
+        this.inatividade = inatividade;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    /**
+     * Arquiva um lote de clientes inativos. Retorna quantos foram movidos (0 quando não há mais nenhum).
+     */
+    public int arquivarLote() {
+        try (Session session = ClienteDAO.getSessionFactory().openSession()) {
+            Transaction transaction = session.beginTransaction();
+            try {
+                // Um único instante do banco para os três comandos: o INSERT e o DELETE precisam ver o mesmo corte
+                LocalDateTime agora = session.createSelectionQuery("SELECT current_timestamp", Timestamp.class)
+                        .getSingleResult().toLocalDateTime();
+                LocalDateTime corte = agora.minus(inatividade);
+                List<Long> ids = session.createNativeQuery(
+                                "SELECT id_cliente FROM cliente WHERE ultima_atividade < :corte " +
+                                        "ORDER BY id_cliente LIMIT :limite FOR UPDATE", Long.class)
+                        .setParameter("corte", corte)
+                        .setParameter("limite", tamanhoLote)
+                        .getResultList();
+
+                if (ids.isEmpty()) {
+                    transaction.commit();
+                    return 0;
+                }
+
+                // As linhas inativas do intervalo são exatamente as travadas acima (a consulta é ordenada por ID).
+                // Usar o intervalo, e não uma lista IN, evita o limite de parâmetros por comando em lotes grandes
+                Long primeiro = ids.get(0);
+                Long ultimo = ids.get(ids.size() - 1);
+                session.createNativeMutationQuery(
+                                "INSERT INTO cliente_arquivo (id_cliente, nome, email, telefone, versao, ultima_atividade, arquivado_em) " +
+                                        "SELECT id_cliente, nome, email, telefone, versao, ultima_atividade, :agora FROM cliente " +
+                                        "WHERE id_cliente BETWEEN :primeiro AND :ultimo AND ultima_atividade < :corte")
+                        .setParameter("agora", agora)
+                        .setParameter("primeiro", primeiro)
+                        .setParameter("ultimo", ultimo)
+                        .setParameter("corte", corte)
+                        .executeUpdate();
+                int movidos = session.createNativeMutationQuery(
+                                "DELETE FROM cliente WHERE id_cliente BETWEEN :primeiro AND :ultimo AND ultima_atividade < :corte")
+                        .setParameter("primeiro", primeiro)
+                        .setParameter("ultimo", ultimo)
+                        .setParameter("corte", corte)
+                        .executeUpdate();
+
+                transaction.commit();
+                ClienteDAO.registrarAlteracao(); // Os clientes arquivados saem das listagens
+                return movidos;
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) transaction.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Arquiva lote após lote até não restar cliente inativo. Retorna o total movido.
+     */
+    public long arquivarTudo() {
+        long total = 0;
+        int movidos;
+        do {
+            movidos = arquivarLote();
+            total += movidos;
+        } while (movidos == tamanhoLote);
+        return total;
+    }
+
+    /**
+     * Traz um cliente arquivado de volta para a tabela principal, na transação já aberta pelo chamador.
+     * Retorna false se o ID não estiver no arquivo. Custa um único comando quando o ID não existe.
+     */
+    static boolean restaurar(Session session, Long id) {
+        int restaurados = session.createNativeMutationQuery(
+                        "INSERT INTO cliente (id_cliente, nome, email, telefone, versao, ultima_atividade) " +
+                                "SELECT id_cliente, nome, email, telefone, versao, CURRENT_TIMESTAMP(6) FROM cliente_arquivo WHERE id_cliente = :id")
+                .setParameter("id", id)
+                .executeUpdate();
+        if (restaurados == 0) return false;
+
+        excluir(session, id);
+        return true;
+    }
+
+    /**
+     * Conta a leitura do cliente como atividade, na transação do chamador, para que um cliente muito lido
+     * e pouco alterado não vá e volte do arquivo a cada ciclo. Para que a leitura não vire uma escrita a
+     * cada chamada, a data só é gravada se a anterior tiver mais de {@link #INTERVALO_LEITURA}. O relógio
+     * da JVM serve só para essa decisão; a data gravada é a do banco.
+     */
+    static void registrarLeitura(Session session, Cliente cliente) {
+        if (cliente == null || cliente.getUltimaAtividade() == null
+                || cliente.getUltimaAtividade().isAfter(LocalDateTime.now().minus(INTERVALO_LEITURA))) {
+            return;
+        }
+        // Não altera a versão: ler não é uma edição
+        session.createMutationQuery("UPDATE Cliente c SET c.ultimaAtividade = current_timestamp WHERE c.idCliente = :id")
+                .setParameter("id", cliente.getIdCliente())
+                .executeUpdate();
+    }
+
+    /**
+     * Remove um cliente do arquivo, na transação do chamador. Retorna false se o ID não estiver lá.
+     */
+    static boolean excluir(Session session, Long id) {
+        return session.createNativeMutationQuery("DELETE FROM cliente_arquivo WHERE id_cliente = :id")
+                .setParameter("id", id)
+                .executeUpdate() == 1;
+    }
+
+    /**
+     * Procura no arquivo os clientes com algum dos emails informados, na transação do chamador.
+     * Devolve email -> ID (comparação de email sem diferenciar maiúsculas, como o índice da tabela principal).
+     *
+     * A leitura é feita com FOR UPDATE: no InnoDB, ela trava também a lacuna do índice onde o email
+     * entraria, e o arquivamento que tentar mover esse email ao mesmo tempo espera esta transação terminar.
+     */
+    static Map<String, Long> arquivadosPorEmail(Session session, Collection<String> emails) {
+        Map<String, Long> arquivados = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        List<String> lista = List.copyOf(emails);
+        for (int inicio = 0; inicio < lista.size(); inicio += EMAILS_POR_CONSULTA) {
+            List<Object[]> linhas = session.createNativeQuery(
+                            "SELECT email, id_cliente FROM cliente_arquivo WHERE email IN (:emails) FOR UPDATE", Object[].class)
+                    .setParameterList("emails", lista.subList(inicio, Math.min(inicio + EMAILS_POR_CONSULTA, lista.size())))
+                    .getResultList();
+            for (Object[] linha : linhas) arquivados.put((String) linha[0], ((Number) linha[1]).longValue());
+        }
+        return arquivados;
+    }
+
+    /**
+     * Lança EmailEmUsoException se o email pertencer a um cliente arquivado (exceto o próprio {@code idPermitido}).
+     */
+    static void exigirEmailLivre(Session session, String email, Long idPermitido) {
+        Long arquivado = arquivadosPorEmail(session, List.of(email)).get(email);
+        if (arquivado != null && !arquivado.equals(idPermitido)) {
+            throw emailArquivado(email, arquivado);
+        }
+    }
+
+    static EmailEmUsoException emailArquivado(String email, Long idArquivado) {
+        return new EmailEmUsoException(email, "O email " + email + " já pertence ao cliente arquivado com ID " + idArquivado + ".");
+    }
+}
@@ -0,0 +1,149 @@
+package org.example.Service;
+
+import org.example.Entity.Cliente;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache dos resultados de listagem do ClienteDAO (getAll), por filtro e página.
+ *
+ * Não há invalidação por entrada: cada resultado guarda a geração da tabela cliente em que foi lido,
+ * e qualquer escrita ({@link ClienteDAO#registrarAlteracao()}) avança a geração, o que torna todas as
+ * entradas antigas inválidas de uma vez. Entradas inválidas são descartadas quando encontradas ou
+ * quando saem pelo LRU. O tamanho é limitado por um peso aproximado em bytes, não pelo número de
+ * entradas, porque uma listagem sem filtro pode ser milhares de vezes maior que uma filtrada.
+ *
+ * Cliente é mutável: o cache guarda cópias próprias e entrega a cada chamador uma cópia nova, para que
+ * alterar um cliente recebido (ex: antes de um update) não mude o que os próximos chamadores recebem.
+ *
+ * O cache vale para esta JVM: escritas feitas por outros processos (ex: a tela Swing, que usa JDBC
+ * direto) só aparecem depois da próxima escrita feita por aqui.
+ */
+public class CacheConsultasClientes {
+
+    // Peso aproximado de um Cliente em memória, sem contar o texto dos campos
+    private static final int PESO_FIXO_CLIENTE = 160;
+    private static final int PESO_FIXO_ENTRADA = 128;
+
+    // Filtro normalizado e janela da consulta; maximo = -1 significa "sem paginação"
+    record Chave(String filtro, int primeiro, int maximo) {
+    }
+
+    private record Entrada(long geracao, List<Cliente> clientes, long peso) {
+    }
+
+    // Números do cache para acompanhamento (ex: impressos pelo gerador de carga)
+    public record Metricas(long acertos, long falhas, int entradas, long peso, long pesoMaximo) {
+
+        // Fração das consultas atendidas pela memória (0 a 1)
+        public double taxaAcerto() {
+            long total = acertos + falhas;
+            return total == 0 ? 0 : (double) acertos / total;
+        }
+    }
+
+    private final long pesoMaximo;
+    // Ordem de acesso: o primeiro elemento é o menos usado recentemente
+    private final LinkedHashMap<Chave, Entrada> entradas = new LinkedHashMap<>(64, 0.75f, true);
+    private long pesoAtual;
+    private final AtomicLong acertos = new AtomicLong();
+    private final AtomicLong falhas = new AtomicLong();
+
+    public CacheConsultasClientes(long pesoMaximo) {
+        if (pesoMaximo < 0) throw new IllegalArgumentException("O peso máximo não pode ser negativo");
+        this.pesoMaximo = pesoMaximo;
+    }
+
+    /**
+     * Devolve o resultado em cache ou executa a consulta e guarda o resultado.
+     * A geração é lida antes da consulta: se houver uma escrita durante a leitura,
+     * o resultado fica com a geração antiga e não é reaproveitado.
+     */
+    List<Cliente> obter(Chave chave, Supplier<List<Cliente>> consulta) {
+        long geracao = ClienteDAO.getGeracao();
+
+        synchronized (this) {
+            Entrada entrada = entradas.get(chave);
+            if (entrada != null) {
+                if (entrada.geracao() == geracao) {
+                    acertos.incrementAndGet();
+                    return copiar(entrada.clientes());
+                }
+                remover(chave, entrada); // Lida antes da última escrita
+            }
+        }
+
+        falhas.incrementAndGet();
+        List<Cliente> clientes = consulta.get();
+        guardar(chave, new Entrada(geracao, copiar(clientes), peso(clientes)));
+        return clientes; // O chamador recebe as instâncias lidas; o cache fica com as cópias
+    }
+
+    // Lista imutável com uma cópia de cada cliente
+    private static List<Cliente> copiar(List<Cliente> clientes) {
+        return clientes.stream().map(CacheConsultasClientes::copiar).toList();
+    }
+
+    // Também usada por ClienteRepositoryResiliente, que guarda clientes pelo mesmo motivo
+    static Cliente copiar(Cliente cliente) {
+        Cliente copia = new Cliente();
+        copia.setIdCliente(cliente.getIdCliente());
+        copia.setNome(cliente.getNome());
+        copia.setEmail(cliente.getEmail());
+        copia.setTelefone(cliente.getTelefone());
+        copia.setVersao(cliente.getVersao());
+        copia.setUltimaAtividade(cliente.getUltimaAtividade());
+        return copia;
+    }
+
+    private synchronized void guardar(Chave chave, Entrada nova) {
+        if (nova.peso() > pesoMaximo) return; // Maior que o cache inteiro: não vale a pena guardar
+
+        Entrada anterior = entradas.get(chave);
+        if (anterior != null) {
+            if (anterior.geracao() > nova.geracao()) return; // Outra thread já guardou um resultado mais novo
+            remover(chave, anterior);
+        }
+        entradas.put(chave, nova);
+        pesoAtual += nova.peso();
+
+        // Descarta as menos usadas até caber no limite
+        Iterator<Map.Entry<Chave, Entrada>> iterador = entradas.entrySet().iterator();
+        while (pesoAtual > pesoMaximo && iterador.hasNext()) {
+            Map.Entry<Chave, Entrada> antiga = iterador.next();
+            pesoAtual -= antiga.getValue().peso();
+            iterador.remove();
+        }
+    }
+
+    private void remover(Chave chave, Entrada entrada) {
+        entradas.remove(chave);
+        pesoAtual -= entrada.peso();
+    }
+
+    public synchronized void limpar() {
+        entradas.clear();
+        pesoAtual = 0;
+    }
+
+    public synchronized Metricas getMetricas() {
+        return new Metricas(acertos.get(), falhas.get(), entradas.size(), pesoAtual, pesoMaximo);
+    }
+
+    private static long peso(List<Cliente> clientes) {
+        long peso = PESO_FIXO_ENTRADA + 8L * clientes.size();
+        for (Cliente cliente : clientes) {
+            peso += PESO_FIXO_CLIENTE + tamanho(cliente.getNome()) + tamanho(cliente.getEmail()) + tamanho(cliente.getTelefone());
+        }
+        return peso;
+    }
+
+    private static int tamanho(String texto) {
+        return texto == null ? 0 : texto.length();
+    }
+}
@@ -1,29 +1,107 @@
 package org.example.Service;
 
 import org.example.Entity.Cliente;
+import org.example.Entity.ClienteArquivado;
 import org.example.Entity.Form.ClienteForm;
+import org.example.Exception.ConflitoVersaoException;
+import org.example.Exception.EmailEmUsoException;
+import org.example.Monitoramento.ContadorSql;
 import org.example.Repository.ClienteRepository;
+import org.example.Repository.ResultadoUpsert;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
 import org.hibernate.cfg.Configuration;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.MariaDBDialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.exception.ConstraintViolationException;
 
+import java.sql.PreparedStatement;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ClienteDAO implements ClienteRepository {
 
+    // Propriedade de sistema que troca o arquivo de configuração (ex: hibernate-embarcado.cfg.xml)
+    public static final String PROPRIEDADE_CONFIG = "cadastro.hibernate.config";
+
     private static final SessionFactory sessionFactory = buildSessionFactory();
 
+    // Peso máximo padrão do cache de listagens (~16 MiB)
+    public static final long PESO_PADRAO_CACHE = 16L << 20;
+
+    // Geração da tabela cliente: avança a cada escrita confirmada e invalida o cache de listagens
+    private static final AtomicLong geracao = new AtomicLong();
+
+    private final CacheConsultasClientes cache;
+
+    // Upsert nativo do MariaDB/MySQL pela chave única de email. Como a versão sempre muda na atualização,
+    // o banco informa 1 linha afetada para inserção e 2 para atualização
+    private static final String SQL_UPSERT = sqlUpsert(sessionFactory);
+
     private static SessionFactory buildSessionFactory() {
         try {
-            return new Configuration().configure("hibernate.cfg.xml").buildSessionFactory();
+            String arquivo = System.getProperty(PROPRIEDADE_CONFIG, "hibernate.cfg.xml");
+            Configuration configuration = new Configuration().configure(arquivo);
+
+            // Propriedades de sistema "hibernate.*" sobrescrevem as do arquivo (ex: -Dhibernate.show_sql=false)
+            for (String nome : System.getProperties().stringPropertyNames()) {
+                if (nome.startsWith("hibernate.")) {
+                    configuration.setProperty(nome, System.getProperty(nome));
+                }
+            }
+            return configuration.buildSessionFactory();
         } catch (Throwable ex) {
             System.err.println("Erro ao criar o SessionFactory: " + ex);
             throw new ExceptionInInitializerError(ex);
         }
     }
 
+    // O MySQL 8.0.20+ desaconselha VALUES(coluna) e usa um apelido para a linha nova; o MariaDB (e o H2
+    // no modo MariaDB) só aceitam VALUES(coluna)
+    private static String sqlUpsert(SessionFactory sessionFactory) {
+        Dialect dialect = sessionFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        boolean apelido = dialect instanceof MySQLDialect && !(dialect instanceof MariaDBDialect)
+                && dialect.getVersion().isSameOrAfter(8, 0, 19);
+        String insert = "INSERT INTO cliente (nome, telefone, email, versao, ultima_atividade) VALUES (?, ?, ?, 0, CURRENT_TIMESTAMP(6)) ";
+        String atualizacao = "versao = versao + 1, ultima_atividade = CURRENT_TIMESTAMP(6)";
+        return apelido
+                ? insert + "AS novo ON DUPLICATE KEY UPDATE nome = novo.nome, telefone = novo.telefone, " + atualizacao
+                : insert + "ON DUPLICATE KEY UPDATE nome = VALUES(nome), telefone = VALUES(telefone), " + atualizacao;
+    }
+
+    public ClienteDAO() {
+        this(new CacheConsultasClientes(PESO_PADRAO_CACHE));
+    }
+
+    // Permite escolher o tamanho do cache de listagens (peso 0 desliga o cache na prática)
+    public ClienteDAO(CacheConsultasClientes cache) {
+        this.cache = cache;
+    }
+
+    // Permite que outros serviços do pacote (ex: deduplicação) reutilizem a mesma SessionFactory
+    static SessionFactory getSessionFactory() {
+        return sessionFactory;
+    }
+
+    public static long getGeracao() {
+        return geracao.get();
+    }
+
+    // Chamado depois de toda escrita confirmada na tabela cliente, inclusive pelos serviços do pacote
+    // (lote, snapshot, deduplicação, arquivamento) que não passam pelo DAO
+    static void registrarAlteracao() {
+        geracao.incrementAndGet();
+    }
+
+    public CacheConsultasClientes getCache() {
+        return cache;
+    }
+
     @Override
     public Cliente create(ClienteForm form) {
         Cliente cliente = new Cliente();
@@ -31,97 +109,308 @@ public class ClienteDAO implements ClienteRepository {
         cliente.setTelefone(form.getTelefone());
         cliente.setEmail(form.getEmail());
 
-        Transaction transaction = null;
-
         try (Session session = sessionFactory.openSession()) {
-            transaction = session.beginTransaction();
-            session.persist(cliente);
-            transaction.commit();
-            return cliente;
-        } catch (Exception e) {
-            if (transaction != null) transaction.rollback();
-            throw e;
+            Transaction transaction = session.beginTransaction();
+            try {
+                // O índice único não alcança o arquivo: o email também não pode ser de um cliente arquivado
+                ArquivamentoClientes.exigirEmailLivre(session, form.getEmail(), null);
+                session.persist(cliente);
+                transaction.commit();
+                registrarAlteracao();
+                return cliente;
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) transaction.rollback();
+                throw e;
+            }
         }
     }
 
     @Override
     public Cliente get(Long id) {
         try (Session session = sessionFactory.openSession()) {
-            // Usando find() que é JPA padrão
-            return session.find(Cliente.class, id);
+            // A transação mantém a mesma conexão entre a busca e uma eventual restauração do arquivo
+            Transaction transaction = session.beginTransaction();
+            try {
+                // Usando find() que é JPA padrão
+                Cliente cliente = session.find(Cliente.class, id);
+
+                // Não está na tabela principal: traz de volta do arquivo, se estiver lá
+                boolean restaurado = cliente == null && ArquivamentoClientes.restaurar(session, id);
+                if (restaurado) cliente = session.find(Cliente.class, id);
+                else ArquivamentoClientes.registrarLeitura(session, cliente); // A restauração já renovou a data
+                transaction.commit();
+                if (restaurado) registrarAlteracao(); // O cliente volta a aparecer nas listagens
+                return cliente;
+            } catch (ConstraintViolationException e) {
+                if (transaction.isActive()) transaction.rollback();
+                return conflitoRestauracao(session, id, e);
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) transaction.rollback();
+                throw e;
+            }
         }
     }
 
+    // A restauração do arquivo esbarrou em um índice único, e a transação já foi desfeita. Se outro acesso
+    // restaurou o cliente antes, devolve a linha dele; se o email passou a ser de outro cliente, o cliente
+    // arquivado não pode voltar, e o conflito é informado em vez de devolver a cópia congelada do arquivo
+    private static Cliente conflitoRestauracao(Session session, Long id, ConstraintViolationException causa) {
+        Cliente cliente = session.find(Cliente.class, id);
+        if (cliente != null) return cliente;
+        ClienteArquivado arquivado = session.find(ClienteArquivado.class, id);
+        if (arquivado == null) throw causa;
+        throw new EmailEmUsoException(arquivado.getEmail(), "O cliente arquivado com ID " + id
+                + " não pode ser restaurado: o email " + arquivado.getEmail() + " já é usado por outro cliente.", causa);
+    }
+
     @Override
     public List<Cliente> getAll(String filtro) {
-        try (Session session = sessionFactory.openSession()) {
-            List<Cliente> clientes = session.createQuery("FROM Cliente", Cliente.class).list();
+        return listarPagina(filtro, 0, -1);
+    }
 
-            if (filtro == null || filtro.trim().isEmpty()) {
-                return clientes;
-            }
+    @Override
+    public List<Cliente> getAll(String filtro, int pagina, int tamanhoPagina) {
+        if (pagina < 0 || tamanhoPagina <= 0) {
+            throw new IllegalArgumentException("Página inválida: " + pagina + " (tamanho " + tamanhoPagina + ")");
+        }
+        return listarPagina(filtro, pagina * tamanhoPagina, tamanhoPagina);
+    }
 
-            List<Cliente> clientesFiltrados = new ArrayList<>();
-            for (Cliente cliente : clientes) {
-                if (cliente.getNome().equals(filtro) ||
-                        cliente.getEmail().equals(filtro) ||
-                        cliente.getTelefone().equals(filtro)) {
-                    clientesFiltrados.add(cliente);
-                }
+    // Entre duas escritas, a mesma listagem é atendida pelo cache sem ir ao banco
+    private List<Cliente> listarPagina(String filtro, int primeiro, int maximo) {
+        String filtroNormalizado = filtro == null || filtro.trim().isEmpty() ? "" : filtro;
+        return cache.obter(new CacheConsultasClientes.Chave(filtroNormalizado, primeiro, maximo),
+                () -> consultar(filtroNormalizado, primeiro, maximo));
+    }
+
+    // O filtro é aplicado no banco (igualdade em nome, email ou telefone), em vez de trazer a tabela inteira
+    private List<Cliente> consultar(String filtro, int primeiro, int maximo) {
+        try (Session session = sessionFactory.openSession()) {
+            if (filtro.isEmpty()) {
+                var consulta = session.createSelectionQuery("FROM Cliente c ORDER BY c.idCliente", Cliente.class);
+                if (maximo > 0) consulta.setFirstResult(primeiro).setMaxResults(maximo);
+                return consulta.getResultList();
             }
-            return clientesFiltrados;
+
+            // O "=" do banco segue a collation da coluna (no MariaDB, ignora maiúsculas e espaços no fim).
+            // O banco traz os candidatos, e a igualdade exata de antes (String.equals) é conferida aqui;
+            // por isso a página também é recortada aqui, depois do filtro
+            List<Cliente> candidatos = session.createSelectionQuery("FROM Cliente c WHERE c.nome = :filtro " +
+                            "OR c.email = :filtro OR c.telefone = :filtro ORDER BY c.idCliente", Cliente.class)
+                    .setParameter("filtro", filtro)
+                    .getResultList();
+            return candidatos.stream()
+                    .filter(c -> c.getNome().equals(filtro) || c.getEmail().equals(filtro) || c.getTelefone().equals(filtro))
+                    .skip(primeiro)
+                    .limit(maximo > 0 ? maximo : Long.MAX_VALUE)
+                    .toList();
         }
     }
 
     @Override
     public Cliente update(Long id, ClienteForm form) {
-        Transaction transaction = null;
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            try {
+                Cliente cliente = session.find(Cliente.class, id);
+                if (cliente == null) {
+                    try {
+                        if (ArquivamentoClientes.restaurar(session, id)) {
+                            cliente = session.find(Cliente.class, id); // Cliente arquivado volta para a tabela principal
+                        }
+                    } catch (ConstraintViolationException e) {
+                        transaction.rollback();
+                        conflitoRestauracao(session, id, e);
+                        return update(id, form); // Outro acesso já restaurou o cliente: atualiza a linha dele
+                    }
+                }
+
+                if (cliente != null) {
+                    if (!cliente.getEmail().equals(form.getEmail())) {
+                        ArquivamentoClientes.exigirEmailLivre(session, form.getEmail(), id);
+                    }
+                    cliente.setNome(form.getNome());
+                    cliente.setTelefone(form.getTelefone());
+                    cliente.setEmail(form.getEmail());
 
+                    // Força atualização no banco
+                    session.merge(cliente);
+                    transaction.commit();
+                    registrarAlteracao();
+                    return cliente;
+                } else {
+                    transaction.rollback();
+                    return null;
+                }
+            } catch (RuntimeException e) {
+                // Desfaz com a sessão ainda aberta, antes que a conexão volte ao pool
+                if (transaction.isActive()) transaction.rollback();
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public Cliente update(Long id, ClienteForm form, Long versaoEsperada) {
         try (Session session = sessionFactory.openSession()) {
-            transaction = session.beginTransaction();
+            Transaction transaction = session.beginTransaction();
 
-            Cliente cliente = session.find(Cliente.class, id);
+            try {
+                int linhas = atualizarSeVersao(session, id, form, versaoEsperada);
 
-            if (cliente != null) {
-                cliente.setNome(form.getNome());
-                cliente.setTelefone(form.getTelefone());
-                cliente.setEmail(form.getEmail());
+                // Nenhuma linha afetada e o cliente está no arquivo: restaura e tenta de novo
+                if (linhas == 0 && session.find(Cliente.class, id) == null) {
+                    boolean restaurado;
+                    try {
+                        restaurado = ArquivamentoClientes.restaurar(session, id);
+                    } catch (ConstraintViolationException e) {
+                        transaction.rollback();
+                        conflitoRestauracao(session, id, e);
+                        return update(id, form, versaoEsperada); // Outro acesso já restaurou o cliente
+                    }
+                    if (restaurado) linhas = atualizarSeVersao(session, id, form, versaoEsperada);
+                }
 
-                // Força atualização no banco
-                session.merge(cliente);
-                transaction.commit();
-                return cliente;
-            } else {
-                System.out.println("Cliente com ID " + id + " não encontrado.");
+                if (linhas == 1) {
+                    transaction.commit();
+                    registrarAlteracao();
+
+                    Cliente cliente = new Cliente();
+                    cliente.setIdCliente(id);
+                    cliente.setNome(form.getNome());
+                    cliente.setTelefone(form.getTelefone());
+                    cliente.setEmail(form.getEmail());
+                    cliente.setVersao(versaoEsperada + 1);
+                    return cliente;
+                }
+
+                // Nenhuma linha afetada: o cliente não existe, a versão mudou ou o email é de um cliente arquivado
+                Cliente atual = session.find(Cliente.class, id);
+                if (atual != null && atual.getVersao().equals(versaoEsperada)) {
+                    ArquivamentoClientes.exigirEmailLivre(session, form.getEmail(), id);
+                }
                 transaction.rollback();
-                return null;
+
+                if (atual == null) {
+                    return null;
+                }
+                throw new ConflitoVersaoException(id, versaoEsperada, atual);
+            } catch (RuntimeException e) {
+                // Desfaz com a sessão ainda aberta, antes que a conexão volte ao pool
+                if (transaction.isActive()) transaction.rollback();
+                throw e;
             }
-        } catch (Exception e) {
-            if (transaction != null) transaction.rollback();
-            throw e;
         }
     }
 
-    @Override
-    public void delete(Long id) {
-        Transaction transaction = null;
+    // UPDATE condicional: só grava se ninguém alterou o registro desde a leitura,
+    // sem precisar de SELECT ... FOR UPDATE nem segurar bloqueios entre leitura e escrita.
+    // O mesmo comando confere que o email não pertence a outro cliente arquivado
+    private static int atualizarSeVersao(Session session, Long id, ClienteForm form, Long versaoEsperada) {
+        return session.createMutationQuery(
+                        "UPDATE Cliente c SET c.nome = :nome, c.telefone = :telefone, c.email = :email, " +
+                                "c.versao = c.versao + 1, c.ultimaAtividade = current_timestamp " +
+                                "WHERE c.idCliente = :id AND c.versao = :versao AND NOT EXISTS " +
+                                "(SELECT 1 FROM ClienteArquivado a WHERE a.email = :email AND a.idCliente <> :id)")
+                .setParameter("nome", form.getNome())
+                .setParameter("telefone", form.getTelefone())
+                .setParameter("email", form.getEmail())
+                .setParameter("id", id)
+                .setParameter("versao", versaoEsperada)
+                .executeUpdate();
+    }
 
+    @Override
+    public ResultadoUpsert createOrUpdate(ClienteForm form) {
         try (Session session = sessionFactory.openSession()) {
-            transaction = session.beginTransaction();
+            Transaction transaction = session.beginTransaction();
+            try {
+                restaurarPorEmail(session, List.of(form.getEmail()));
+                int linhas = session.createNativeMutationQuery(SQL_UPSERT)
+                        .setParameter(1, form.getNome())
+                        .setParameter(2, form.getTelefone())
+                        .setParameter(3, form.getEmail())
+                        .executeUpdate();
+                transaction.commit();
+                registrarAlteracao();
+                return resultadoUpsert(linhas);
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) transaction.rollback();
+                throw e;
+            }
+        }
+    }
 
-            Cliente cliente = session.find(Cliente.class, id);
+    @Override
+    public List<ResultadoUpsert> upsertAll(List<ClienteForm> forms) {
+        if (forms.isEmpty()) return List.of();
 
-            if (cliente != null) {
-                session.remove(cliente);
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            try {
+                restaurarPorEmail(session, forms.stream().map(ClienteForm::getEmail).distinct().toList());
+                // Lote JDBC: todos os upserts vão ao banco em uma única ida
+                int[] linhas = session.doReturningWork(conexao -> {
+                    try (PreparedStatement stmt = conexao.prepareStatement(SQL_UPSERT)) {
+                        for (ClienteForm form : forms) {
+                            stmt.setString(1, form.getNome());
+                            stmt.setString(2, form.getTelefone());
+                            stmt.setString(3, form.getEmail());
+                            stmt.addBatch();
+                        }
+                        return stmt.executeBatch();
+                    }
+                });
+                ContadorSql.registrarComandos(1); // JDBC puro não passa pelos eventos do Hibernate
                 transaction.commit();
-                System.out.println("Cliente removido com sucesso!");
-            } else {
-                transaction.rollback();
-                throw new RuntimeException("Cliente com ID " + id + " não encontrado.");
+                registrarAlteracao();
+
+                List<ResultadoUpsert> resultados = new ArrayList<>(linhas.length);
+                for (int quantidade : linhas) resultados.add(resultadoUpsert(quantidade));
+                return resultados;
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) transaction.rollback();
+                throw e;
+            }
+        }
+    }
+
+    // O upsert é pela chave única de email, que não alcança o arquivo: um cliente arquivado com o
+    // mesmo email volta para a tabela principal antes, para ser atualizado em vez de duplicado
+    private static void restaurarPorEmail(Session session, List<String> emails) {
+        for (Long id : ArquivamentoClientes.arquivadosPorEmail(session, emails).values()) {
+            ArquivamentoClientes.restaurar(session, id);
+        }
+    }
+
+    private static ResultadoUpsert resultadoUpsert(int linhasAfetadas) {
+        if (linhasAfetadas == Statement.SUCCESS_NO_INFO) return ResultadoUpsert.NAO_INFORMADO;
+        return linhasAfetadas == 1 ? ResultadoUpsert.INSERIDO : ResultadoUpsert.ATUALIZADO;
+    }
+
+    @Override
+    public void delete(Long id) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            try {
+                Cliente cliente = session.find(Cliente.class, id);
+                // Remove também do arquivo: uma cópia arquivada esquecida voltaria no próximo get(id)
+                boolean arquivado = ArquivamentoClientes.excluir(session, id);
+
+                if (cliente != null) {
+                    session.remove(cliente);
+                    transaction.commit();
+                    registrarAlteracao();
+                } else if (arquivado) {
+                    transaction.commit(); // O cliente estava só no arquivo
+                } else {
+                    transaction.rollback();
+                    throw new RuntimeException("Cliente com ID " + id + " não encontrado.");
+                }
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) transaction.rollback();
+                throw e;
             }
-        } catch (Exception e) {
-            if (transaction != null) transaction.rollback();
-            throw e;
         }
     }
 
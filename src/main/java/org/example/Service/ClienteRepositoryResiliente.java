@@ -0,0 +1,357 @@
+package org.example.Service;
+
+import org.example.Entity.Cliente;
+import org.example.Entity.Form.ClienteForm;
+import org.example.Exception.BancoIndisponivelException;
+import org.example.Repository.ClienteRepository;
+import org.example.Repository.Leitura;
+import org.example.Repository.ResultadoUpsert;
+import org.hibernate.exception.JDBCConnectionException;
+
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Decorador de ClienteRepository com leituras "stale-while-revalidate".
+ *
+ * Cada leitura (get e getAll) tem um orçamento de tempo. A consulta roda em uma thread própria;
+ * se não terminar dentro do orçamento, falhar, ou se o disjuntor estiver aberto, o último valor
+ * lido com sucesso é devolvido marcado como desatualizado ({@link Leitura#desatualizado()}).
+ * A consulta atrasada continua em segundo plano e, quando terminar, atualiza o cache: é a revalidação.
+ * Consultas iguais em andamento são compartilhadas, então um banco travado recebe no máximo uma
+ * consulta por chave, e o disjuntor corta as novas depois de algumas falhas seguidas.
+ *
+ * Só falhas de infraestrutura (orçamento esgotado, conexão perdida, erros transitórios do driver)
+ * contam para o disjuntor e levam ao último valor conhecido. Erros da aplicação, como uma página
+ * inválida, são repassados ao chamador sem mexer no disjuntor nem no cache.
+ * Cliente é mutável: o cache guarda cópias próprias e cada leitura recebe uma cópia nova.
+ *
+ * As escritas vão direto ao repositório, sem orçamento, e descartam as entradas do cache que afetam.
+ * As consultas dessas chaves que ainda estão em andamento são marcadas como invalidadas: o resultado
+ * delas, lido antes da escrita, não volta para o cache quando terminarem.
+ */
+public class ClienteRepositoryResiliente implements ClienteRepository, AutoCloseable {
+
+    private static final int CAPACIDADE_PADRAO = 10_000; // Últimos valores guardados (por ID ou listagem)
+
+    private final ClienteRepository repository;
+    private final long orcamentoNanos;
+    private final DisjuntorCircuito disjuntor;
+    private final ExecutorService executor;
+
+    private final Map<Object, Valor<?>> ultimos;                              // Último valor bom por chave (LRU)
+    private final ConcurrentHashMap<Object, Chamada<?>> emAndamento = new ConcurrentHashMap<>();
+
+    private final LongAdder desatualizadas = new LongAdder(); // Leituras atendidas pelo cache local
+    private final LongAdder tempoEsgotado = new LongAdder();  // Leituras que passaram do orçamento
+
+    private record ChaveCliente(Long id) {
+    }
+
+    private record ChaveListagem(String filtro, int pagina, int tamanhoPagina) {
+    }
+
+    // Envolve o valor para distinguir "cliente inexistente" (null guardado) de "nada em cache"
+    private record Valor<T>(T valor) {
+    }
+
+    // Consulta ao banco em andamento, compartilhada pelos leitores da mesma chave
+    private static final class Chamada<T> {
+        final CompletableFuture<T> futuro = new CompletableFuture<>();
+        final AtomicBoolean registrada = new AtomicBoolean();
+        final long permissao;  // Permissão do disjuntor de quem iniciou a consulta
+        boolean invalidada;    // Houve escrita na chave durante a consulta (protegido por "ultimos")
+
+        Chamada(long permissao) {
+            this.permissao = permissao;
+        }
+    }
+
+    // Números do modo resiliente para acompanhamento
+    public record Metricas(DisjuntorCircuito.Metricas disjuntor, long desatualizadas, long tempoEsgotado, int emCache) {
+    }
+
+    public ClienteRepositoryResiliente(ClienteRepository repository, Duration orcamentoLeitura) {
+        this(repository, orcamentoLeitura, new DisjuntorCircuito("leitura-banco", 5, 5, TimeUnit.SECONDS), CAPACIDADE_PADRAO);
+    }
+
+    public ClienteRepositoryResiliente(ClienteRepository repository, Duration orcamentoLeitura,
+                                       DisjuntorCircuito disjuntor, int capacidade) {
+        this.repository = repository;
+        this.orcamentoNanos = orcamentoLeitura.toNanos();
+        this.disjuntor = disjuntor;
+        this.ultimos = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Valor<?>> maisAntiga) {
+                return size() > capacidade;
+            }
+        };
+        // Threads de plataforma: o driver JDBC pode bloquear dentro de blocos synchronized
+        this.executor = Executors.newCachedThreadPool(Thread.ofPlatform().name("leitura-banco-", 0).daemon().factory());
+    }
+
+    /**
+     * Busca o cliente dentro do orçamento; se o banco não responder a tempo, devolve o último valor conhecido.
+     */
+    @Override
+    public Leitura<Cliente> ler(Long id) {
+        return ler(new ChaveCliente(id), () -> repository.get(id));
+    }
+
+    @Override
+    public Leitura<List<Cliente>> lerTodos(String filtro) {
+        return ler(new ChaveListagem(filtro == null ? "" : filtro, 0, -1), () -> repository.getAll(filtro));
+    }
+
+    @Override
+    public Leitura<List<Cliente>> lerTodos(String filtro, int pagina, int tamanhoPagina) {
+        return ler(new ChaveListagem(filtro == null ? "" : filtro, pagina, tamanhoPagina),
+                () -> repository.getAll(filtro, pagina, tamanhoPagina));
+    }
+
+    private <T> Leitura<T> ler(Object chave, Supplier<T> consulta) {
+        long permissao = disjuntor.permitir();
+        if (permissao == DisjuntorCircuito.RECUSADA) {
+            return ultimoOuFalha(chave, null, "circuito aberto");
+        }
+
+        Chamada<T> chamada = iniciarOuCompartilhar(chave, consulta, permissao);
+        try {
+            T valor = chamada.futuro.get(orcamentoNanos, TimeUnit.NANOSECONDS);
+            informar(chamada, permissao, true);
+            return new Leitura<>(copiar(valor), false); // Leitores da mesma consulta não dividem a instância
+        } catch (TimeoutException e) {
+            tempoEsgotado.increment();
+            informar(chamada, permissao, false);
+            return ultimoOuFalha(chave, e, "sem resposta em " + TimeUnit.NANOSECONDS.toMillis(orcamentoNanos) + " ms");
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (!falhaDeInfraestrutura(causa)) {
+                liberar(chamada, permissao);
+                if (causa instanceof Error erro) throw erro;
+                throw (RuntimeException) causa; // A consulta é um Supplier: só lança exceções não verificadas
+            }
+            informar(chamada, permissao, false);
+            if (temUltimo(chave)) return ultimoOuFalha(chave, causa, causa.getMessage());
+            if (causa instanceof RuntimeException erro) throw erro;
+            throw new BancoIndisponivelException(causa.getMessage(), causa);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            liberar(chamada, permissao); // Se esta leitura era a sonda, o disjuntor não fica esperando por ela
+            return ultimoOuFalha(chave, e, "leitura interrompida");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Chamada<T> iniciarOuCompartilhar(Object chave, Supplier<T> consulta, long permissao) {
+        Chamada<T> nova = new Chamada<>(permissao);
+        Chamada<T> existente = (Chamada<T>) emAndamento.putIfAbsent(chave, nova);
+        if (existente != null) return existente; // Já há uma consulta igual em andamento: espera por ela
+
+        long inicio = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                try {
+                    T valor = consulta.get();
+                    guardar(chave, nova, valor);
+                    // Resposta boa, mas fora do orçamento, também conta como falha para o disjuntor
+                    informar(nova, nova.permissao, System.nanoTime() - inicio <= orcamentoNanos);
+                    emAndamento.remove(chave, nova);
+                    nova.futuro.complete(valor);
+                } catch (Throwable erro) {
+                    if (falhaDeInfraestrutura(erro)) informar(nova, nova.permissao, false);
+                    else liberar(nova, nova.permissao);
+                    emAndamento.remove(chave, nova);
+                    nova.futuro.completeExceptionally(erro);
+                }
+            });
+        } catch (RejectedExecutionException e) { // Depois de close()
+            emAndamento.remove(chave, nova);
+            nova.futuro.completeExceptionally(e);
+        }
+        return nova;
+    }
+
+    // Cada consulta conta uma única vez para o disjuntor, para que vários leitores esperando a mesma
+    // consulta lenta não somem várias falhas. A exceção é a sonda do SEMI_ABERTO, que sempre informa
+    // o resultado, mesmo quando pegou carona em uma consulta que já tinha sido contada. As demais
+    // permissões não mudam o SEMI_ABERTO (ver DisjuntorCircuito)
+    private void informar(Chamada<?> chamada, long permissao, boolean sucesso) {
+        boolean primeira = chamada.registrada.compareAndSet(false, true);
+        if (!primeira && !disjuntor.eSonda(permissao)) {
+            return;
+        }
+        if (sucesso) disjuntor.registrarSucesso(permissao);
+        else disjuntor.registrarFalha(permissao);
+    }
+
+    // Erro da aplicação: a consulta conta como registrada, mas sem sucesso nem falha para o disjuntor
+    private void liberar(Chamada<?> chamada, long permissao) {
+        chamada.registrada.set(true);
+        disjuntor.liberar(permissao);
+    }
+
+    // Procura na cadeia de causas um sinal de que o banco não respondeu: conexão recusada ou perdida
+    // (o Hibernate traduz para JDBCConnectionException) ou erro transitório/recuperável do driver
+    private static boolean falhaDeInfraestrutura(Throwable erro) {
+        for (Throwable causa = erro; causa != null; causa = causa.getCause() == causa ? null : causa.getCause()) {
+            if (causa instanceof JDBCConnectionException || causa instanceof SQLTransientException
+                    || causa instanceof SQLRecoverableException || causa instanceof BancoIndisponivelException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Leitura<T> ultimoOuFalha(Object chave, Throwable causa, String motivo) {
+        Valor<T> ultimo;
+        synchronized (ultimos) {
+            ultimo = (Valor<T>) ultimos.get(chave);
+        }
+        if (ultimo == null) throw new BancoIndisponivelException(motivo + " e nenhum valor anterior em cache", causa);
+        desatualizadas.increment();
+        return new Leitura<>(copiar(ultimo.valor()), true);
+    }
+
+    private boolean temUltimo(Object chave) {
+        synchronized (ultimos) {
+            return ultimos.containsKey(chave);
+        }
+    }
+
+    // Uma consulta invalidada por escrita não guarda o resultado: ele pode ser anterior à escrita
+    private void guardar(Object chave, Chamada<?> chamada, Object valor) {
+        synchronized (ultimos) {
+            if (!chamada.invalidada) ultimos.put(chave, new Valor<>(copiar(valor)));
+        }
+    }
+
+    // Os valores são um Cliente (ou null) ou uma lista de clientes
+    @SuppressWarnings("unchecked")
+    private static <T> T copiar(T valor) {
+        if (valor instanceof Cliente cliente) return (T) CacheConsultasClientes.copiar(cliente);
+        if (valor instanceof List<?> lista) {
+            List<Cliente> copia = new ArrayList<>(lista.size());
+            for (Object cliente : lista) copia.add(CacheConsultasClientes.copiar((Cliente) cliente));
+            return (T) copia;
+        }
+        return valor;
+    }
+
+    // Uma escrita tornou as listagens antigas (e, se houver ID, o cliente) diferentes do banco
+    private void descartar(Long id) {
+        ChaveCliente chaveCliente = id == null ? null : new ChaveCliente(id);
+        descartarSe(chave -> chave instanceof ChaveListagem || chave.equals(chaveCliente));
+    }
+
+    private void descartarSe(Predicate<Object> afetada) {
+        synchronized (ultimos) {
+            ultimos.keySet().removeIf(afetada);
+            // Quem chegar depois começa uma consulta nova, em vez de esperar a que foi invalidada
+            emAndamento.forEach((chave, chamada) -> {
+                if (afetada.test(chave)) {
+                    chamada.invalidada = true;
+                    emAndamento.remove(chave, chamada);
+                }
+            });
+        }
+    }
+
+    @Override
+    public Cliente get(Long id) {
+        return ler(id).valor();
+    }
+
+    @Override
+    public List<Cliente> getAll(String filtro) {
+        return lerTodos(filtro).valor();
+    }
+
+    @Override
+    public List<Cliente> getAll(String filtro, int pagina, int tamanhoPagina) {
+        return lerTodos(filtro, pagina, tamanhoPagina).valor();
+    }
+
+    @Override
+    public Cliente create(ClienteForm form) {
+        Cliente cliente = repository.create(form);
+        descartar(null);
+        return cliente;
+    }
+
+    @Override
+    public Cliente update(Long id, ClienteForm form) {
+        Cliente cliente = repository.update(id, form);
+        descartar(id);
+        return cliente;
+    }
+
+    @Override
+    public Cliente update(Long id, ClienteForm form, Long versaoEsperada) {
+        try {
+            return repository.update(id, form, versaoEsperada);
+        } finally {
+            descartar(id); // Também no conflito de versão: o valor em cache está velho
+        }
+    }
+
+    @Override
+    public ResultadoUpsert createOrUpdate(ClienteForm form) {
+        ResultadoUpsert resultado = repository.createOrUpdate(form);
+        descartarTudo(); // O upsert é por email; não se sabe qual ID mudou
+        return resultado;
+    }
+
+    @Override
+    public List<ResultadoUpsert> upsertAll(List<ClienteForm> forms) {
+        List<ResultadoUpsert> resultados = repository.upsertAll(forms);
+        descartarTudo();
+        return resultados;
+    }
+
+    @Override
+    public void delete(Long id) {
+        repository.delete(id);
+        descartar(id);
+    }
+
+    @Override
+    public Iterable<Cliente> listar() {
+        return getAll(null);
+    }
+
+    private void descartarTudo() {
+        descartarSe(chave -> true);
+    }
+
+    public Metricas getMetricas() {
+        int emCache;
+        synchronized (ultimos) {
+            emCache = ultimos.size();
+        }
+        return new Metricas(disjuntor.getMetricas(), desatualizadas.sum(), tempoEsgotado.sum(), emCache);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
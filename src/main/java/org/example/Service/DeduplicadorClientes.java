@@ -0,0 +1,362 @@
+package org.example.Service;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Detecta clientes quase duplicados: mesmo telefone com formatação diferente
+ * ou emails que diferem apenas em maiúsculas/minúsculas ou espaços.
+ *
+ * A tabela é lida em streaming (só id, telefone e email) e os blocos lidos são agrupados
+ * em paralelo com fork/join pelo hash de 64 bits da chave normalizada. A memória cresce com
+ * o número de chaves distintas, não com o número de linhas: cada chave guarda apenas o
+ * primeiro ID visto, e a lista de IDs só é criada quando aparece um duplicado.
+ */
+public class DeduplicadorClientes {
+
+    private static final int TAMANHO_BLOCO = 50_000;    // Linhas lidas do banco por bloco
+    private static final int LIMIAR_SEQUENCIAL = 2_048; // Abaixo disso o fork/join processa direto
+    private static final int TAMANHO_LOTE_EXCLUSAO = 1_000;
+
+    private final ForkJoinPool pool;
+
+    public DeduplicadorClientes() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public DeduplicadorClientes(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // Tipo de chave que originou o grupo de duplicados
+    public enum Criterio { TELEFONE, EMAIL }
+
+    // Um grupo de clientes que compartilham a mesma chave normalizada
+    public record Grupo(Criterio criterio, List<Long> ids) {
+    }
+
+    // Resultado da varredura. "duplicados" é quantos clientes o mesclar() removeria: os clientes ligados
+    // por algum grupo menos os conjuntos ligados (um cliente com telefone e email repetidos conta uma vez só)
+    public record Relatorio(long linhasLidas, long chavesDistintas, List<Grupo> grupos, long duplicados) {
+    }
+
+    /**
+     * Mantém apenas os dígitos do telefone: "(11) 9 8765-4321" vira "11987654321".
+     */
+    public static String normalizarTelefone(String telefone) {
+        if (telefone == null) return "";
+        StringBuilder digitos = new StringBuilder(telefone.length());
+        for (int i = 0; i < telefone.length(); i++) {
+            char c = telefone.charAt(i);
+            if (c >= '0' && c <= '9') digitos.append(c);
+        }
+        return digitos.toString();
+    }
+
+    /**
+     * Forma canônica do email: sem espaços em branco e em minúsculas.
+     */
+    public static String normalizarEmail(String email) {
+        if (email == null) return "";
+        StringBuilder canonico = new StringBuilder(email.length());
+        for (int i = 0; i < email.length(); i++) {
+            char c = email.charAt(i);
+            if (!Character.isWhitespace(c)) canonico.append(c);
+        }
+        return canonico.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Varre a tabela cliente e devolve os grupos de possíveis duplicados.
+     */
+    public Relatorio detectar() {
+        Map<Long, Candidatos> porTelefone = new ConcurrentHashMap<>();
+        Map<Long, Candidatos> porEmail = new ConcurrentHashMap<>();
+        long linhasLidas = 0;
+
+        try (StatelessSession session = ClienteDAO.getSessionFactory().openStatelessSession()) {
+            ScrollableResults<Object[]> linhas = session
+                    .createSelectionQuery("SELECT c.idCliente, c.telefone, c.email FROM Cliente c", Object[].class)
+                    .setFetchSize(TAMANHO_BLOCO)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+
+            try (linhas) {
+                // Enquanto um bloco é agrupado no pool, o próximo já está sendo lido do banco
+                ForkJoinTask<Void> emAndamento = null;
+                Bloco bloco = new Bloco(TAMANHO_BLOCO);
+
+                while (linhas.next()) {
+                    Object[] linha = linhas.get();
+                    bloco.adicionar((Long) linha[0], (String) linha[1], (String) linha[2]);
+                    linhasLidas++;
+
+                    if (bloco.tamanho == TAMANHO_BLOCO) {
+                        if (emAndamento != null) emAndamento.join();
+                        emAndamento = pool.submit(new Agrupar(bloco, 0, bloco.tamanho, porTelefone, porEmail));
+                        bloco = new Bloco(TAMANHO_BLOCO);
+                    }
+                }
+
+                if (emAndamento != null) emAndamento.join();
+                if (bloco.tamanho > 0) pool.invoke(new Agrupar(bloco, 0, bloco.tamanho, porTelefone, porEmail));
+            }
+        }
+
+        List<Grupo> grupos = new ArrayList<>();
+        coletar(Criterio.TELEFONE, porTelefone, grupos);
+        coletar(Criterio.EMAIL, porEmail, grupos);
+        grupos.sort(Comparator.comparingInt((Grupo g) -> g.ids().size()).reversed());
+
+        long duplicados = contarDuplicados(grupos, carregar(grupos));
+        return new Relatorio(linhasLidas, porTelefone.size() + porEmail.size(), grupos, duplicados);
+    }
+
+    /**
+     * Mescla os grupos do relatório mantendo o cliente mais antigo (menor ID) de cada conjunto ligado.
+     * Grupos de telefone e de email que compartilham clientes são unidos antes (union-find): se c1 e c2
+     * têm o mesmo telefone e c2 e c3 o mesmo email, os três são um único cliente e só c1 permanece.
+     * Como os grupos foram formados por hash, as chaves normalizadas reais são conferidas antes de
+     * qualquer união. Retorna quantos clientes foram removidos.
+     */
+    public int mesclar(Relatorio relatorio) {
+        // Relê os clientes: algum pode ter mudado ou sido removido desde a detecção
+        List<Long> ids = new ArrayList<>(remover(relatorio.grupos(), carregar(relatorio.grupos())));
+        int removidos = 0;
+
+        for (int inicio = 0; inicio < ids.size(); inicio += TAMANHO_LOTE_EXCLUSAO) {
+            List<Long> lote = ids.subList(inicio, Math.min(inicio + TAMANHO_LOTE_EXCLUSAO, ids.size()));
+            try (Session session = ClienteDAO.getSessionFactory().openSession()) {
+                Transaction transaction = session.beginTransaction();
+                try {
+                    removidos += session.createMutationQuery("DELETE FROM Cliente c WHERE c.idCliente IN :ids")
+                            .setParameter("ids", lote)
+                            .executeUpdate();
+                    transaction.commit();
+                    ClienteDAO.registrarAlteracao(); // Invalida o cache de listagens
+                } catch (RuntimeException e) {
+                    if (transaction.isActive()) transaction.rollback();
+                    throw e;
+                }
+            }
+        }
+        return removidos;
+    }
+
+    // Dados atuais (ID -> {telefone, email}) de todos os clientes dos grupos, lidos de uma vez
+    // (em fatias, pelo limite de parâmetros)
+    private static Map<Long, String[]> carregar(List<Grupo> grupos) {
+        Map<Long, String[]> dados = new HashMap<>();
+        List<Long> envolvidos = new ArrayList<>(new TreeSet<>(grupos.stream()
+                .flatMap(grupo -> grupo.ids().stream()).toList()));
+        if (envolvidos.isEmpty()) return dados;
+
+        try (StatelessSession session = ClienteDAO.getSessionFactory().openStatelessSession()) {
+            for (int inicio = 0; inicio < envolvidos.size(); inicio += TAMANHO_LOTE_EXCLUSAO) {
+                List<Long> fatia = envolvidos.subList(inicio, Math.min(inicio + TAMANHO_LOTE_EXCLUSAO, envolvidos.size()));
+                for (Object[] linha : session
+                        .createSelectionQuery("SELECT c.idCliente, c.telefone, c.email FROM Cliente c WHERE c.idCliente IN :ids",
+                                Object[].class)
+                        .setParameter("ids", fatia)
+                        .list()) {
+                    dados.put((Long) linha[0], new String[]{(String) linha[1], (String) linha[2]});
+                }
+            }
+        }
+        return dados;
+    }
+
+    /**
+     * Quantos clientes o mesclar() removeria com estes dados: clientes ligados menos conjuntos ligados.
+     */
+    static long contarDuplicados(List<Grupo> grupos, Map<Long, String[]> dados) {
+        return remover(grupos, dados).size();
+    }
+
+    // Une os grupos de telefone e de email que compartilham clientes (union-find) e devolve, em ordem,
+    // todos os IDs de cada conjunto ligado menos a raiz (o menor ID, que permanece)
+    private static TreeSet<Long> remover(List<Grupo> grupos, Map<Long, String[]> dados) {
+        UniaoIds uniao = new UniaoIds();
+        for (Grupo grupo : grupos) {
+            Map<String, Long> primeiroPorChave = new HashMap<>();
+            for (Long id : grupo.ids()) {
+                String[] cliente = dados.get(id);
+                if (cliente == null) continue; // Removido desde a detecção
+                String chave = grupo.criterio() == Criterio.TELEFONE
+                        ? normalizarTelefone(cliente[0])
+                        : normalizarEmail(cliente[1]);
+                Long primeiro = primeiroPorChave.putIfAbsent(chave, id);
+                if (primeiro != null) uniao.unir(primeiro, id); // Colisões de hash têm chaves diferentes e não se unem
+            }
+        }
+
+        TreeSet<Long> remover = new TreeSet<>();
+        for (Long id : uniao.ids()) {
+            if (!uniao.raiz(id).equals(id)) remover.add(id);
+        }
+        return remover;
+    }
+
+    private static void coletar(Criterio criterio, Map<Long, Candidatos> mapa, List<Grupo> destino) {
+        for (Candidatos candidatos : mapa.values()) {
+            if (candidatos.quantidade > 1) {
+                destino.add(new Grupo(criterio, candidatos.ids()));
+            }
+        }
+    }
+
+    // Hash FNV-1a de 64 bits com mistura final; colisões são descartadas na conferência do mesclar()
+    static long hash64(String texto) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < texto.length(); i++) {
+            h ^= texto.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= (h >>> 33);
+        h *= 0xff51afd7ed558ccdL;
+        h ^= (h >>> 33);
+        return h;
+    }
+
+    // Union-find de IDs; a raiz de cada conjunto é sempre o menor ID dele
+    private static final class UniaoIds {
+        private final Map<Long, Long> pai = new HashMap<>();
+
+        Long raiz(Long id) {
+            Long atual = id;
+            Long proximo;
+            while (!(proximo = pai.getOrDefault(atual, atual)).equals(atual)) atual = proximo;
+            // Compressão de caminho: aponta todos os visitados direto para a raiz
+            Long raiz = atual;
+            atual = id;
+            while (!atual.equals(raiz)) {
+                proximo = pai.get(atual);
+                pai.put(atual, raiz);
+                atual = proximo;
+            }
+            return raiz;
+        }
+
+        void unir(Long a, Long b) {
+            pai.putIfAbsent(a, a);
+            pai.putIfAbsent(b, b);
+            Long raizA = raiz(a);
+            Long raizB = raiz(b);
+            if (raizA.equals(raizB)) return;
+            if (raizA < raizB) pai.put(raizB, raizA);
+            else pai.put(raizA, raizB);
+        }
+
+        List<Long> ids() {
+            return new ArrayList<>(pai.keySet());
+        }
+    }
+
+    // Bloco de linhas lidas do banco, em arrays paralelos para evitar um objeto por linha
+    private static final class Bloco {
+        final long[] ids;
+        final String[] telefones;
+        final String[] emails;
+        int tamanho;
+
+        Bloco(int capacidade) {
+            ids = new long[capacidade];
+            telefones = new String[capacidade];
+            emails = new String[capacidade];
+        }
+
+        void adicionar(long id, String telefone, String email) {
+            ids[tamanho] = id;
+            telefones[tamanho] = telefone;
+            emails[tamanho] = email;
+            tamanho++;
+        }
+    }
+
+    // IDs que compartilham uma chave; o array só é alocado quando surge o segundo ID
+    private static final class Candidatos {
+        final long primeiro;
+        long[] demais;
+        int quantidade = 1;
+
+        Candidatos(long primeiro) {
+            this.primeiro = primeiro;
+        }
+
+        Candidatos adicionar(long id) {
+            if (demais == null) {
+                demais = new long[2];
+            } else if (quantidade - 1 == demais.length) {
+                demais = Arrays.copyOf(demais, demais.length * 2);
+            }
+            demais[quantidade - 1] = id;
+            quantidade++;
+            return this;
+        }
+
+        List<Long> ids() {
+            List<Long> ids = new ArrayList<>(quantidade);
+            ids.add(primeiro);
+            for (int i = 0; i < quantidade - 1; i++) ids.add(demais[i]);
+            ids.sort(null);
+            return ids;
+        }
+    }
+
+    // Tarefa fork/join que normaliza e agrupa um intervalo do bloco
+    private static final class Agrupar extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        // A tarefa nunca é serializada; os campos são transient só para deixar isso explícito
+        private final transient Bloco bloco;
+        private final int inicio;
+        private final int fim;
+        private final transient Map<Long, Candidatos> porTelefone;
+        private final transient Map<Long, Candidatos> porEmail;
+
+        Agrupar(Bloco bloco, int inicio, int fim, Map<Long, Candidatos> porTelefone, Map<Long, Candidatos> porEmail) {
+            this.bloco = bloco;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.porTelefone = porTelefone;
+            this.porEmail = porEmail;
+        }
+
+        @Override
+        protected void compute() {
+            if (fim - inicio <= LIMIAR_SEQUENCIAL) {
+                for (int i = inicio; i < fim; i++) {
+                    registrar(porTelefone, normalizarTelefone(bloco.telefones[i]), bloco.ids[i]);
+                    registrar(porEmail, normalizarEmail(bloco.emails[i]), bloco.ids[i]);
+                }
+                return;
+            }
+            int meio = (inicio + fim) >>> 1;
+            invokeAll(new Agrupar(bloco, inicio, meio, porTelefone, porEmail),
+                    new Agrupar(bloco, meio, fim, porTelefone, porEmail));
+        }
+
+        private static void registrar(Map<Long, Candidatos> mapa, String chave, long id) {
+            if (chave.isEmpty()) return; // Sem dígitos ou email em branco: nada a comparar
+            // compute() é atômico por chave, então Candidatos pode ser alterado sem sincronização extra
+            mapa.compute(hash64(chave), (h, atual) -> atual == null ? new Candidatos(id) : atual.adicionar(id));
+        }
+    }
+}
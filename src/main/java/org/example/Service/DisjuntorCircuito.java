@@ -0,0 +1,170 @@
+package org.example.Service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Disjuntor (circuit breaker) para as chamadas ao banco.
+ *
+ * FECHADO: as chamadas passam; depois de {@code limiteFalhas} falhas seguidas (erro ou lentidão), abre.
+ * ABERTO: nenhuma chamada passa até terminar o tempo de espera; quem chama usa o valor em cache.
+ * SEMI_ABERTO: passado o tempo de espera, uma única chamada de sonda é liberada. Se ela der certo,
+ * o disjuntor fecha; se falhar, volta a abrir por mais um tempo de espera.
+ *
+ * Cada chamada liberada recebe uma permissão numerada, que ela devolve ao informar o resultado.
+ * No SEMI_ABERTO só a permissão da sonda muda o estado: uma chamada liberada antes da abertura
+ * que termine só agora não fecha (nem reabre) o circuito no lugar da sonda.
+ */
+public class DisjuntorCircuito {
+
+    public enum Estado { FECHADO, ABERTO, SEMI_ABERTO }
+
+    public static final long RECUSADA = -1; // Devolvido por permitir() quando a chamada não pode ir ao banco
+
+    private final String nome;
+    private final int limiteFalhas;
+    private final long tempoAbertoNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private Estado estado = Estado.FECHADO;
+    private int falhasSeguidas;
+    private long abertoDesde;        // System.nanoTime() da última abertura
+    private boolean sondaEmAndamento; // No SEMI_ABERTO, só uma chamada por vez testa o banco
+    private long sonda = RECUSADA;    // Permissão da sonda atual
+    private long ultimaPermissao;
+    private long aberturas;
+
+    private final LongAdder recusadas = new LongAdder();
+
+    // Retrato do disjuntor em um instante
+    public record Metricas(String nome, Estado estado, int falhasSeguidas, long aberturas, long recusadas) {
+    }
+
+    /**
+     * @param nome          identificação nas métricas
+     * @param limiteFalhas  falhas seguidas que abrem o circuito
+     * @param tempoAberto   quanto tempo o circuito fica aberto antes de liberar uma sonda
+     */
+    public DisjuntorCircuito(String nome, int limiteFalhas, long tempoAberto, TimeUnit unidade) {
+        if (limiteFalhas <= 0) throw new IllegalArgumentException("O limite de falhas deve ser maior que zero");
+        this.nome = nome;
+        this.limiteFalhas = limiteFalhas;
+        this.tempoAbertoNanos = unidade.toNanos(tempoAberto);
+    }
+
+    /**
+     * Diz se a chamada pode ir ao banco: devolve {@link #RECUSADA} ou uma permissão. Quem recebe
+     * uma permissão precisa informar o resultado com {@link #registrarSucesso(long)}, {@link #registrarFalha(long)}
+     * ou, se a chamada não disse nada sobre a saúde do banco, {@link #liberar(long)}.
+     */
+    public long permitir() {
+        lock.lock();
+        try {
+            if (estado == Estado.ABERTO && System.nanoTime() - abertoDesde >= tempoAbertoNanos) {
+                estado = Estado.SEMI_ABERTO;
+                sondaEmAndamento = false;
+            }
+            switch (estado) {
+                case FECHADO -> {
+                    return ++ultimaPermissao;
+                }
+                case SEMI_ABERTO -> {
+                    if (!sondaEmAndamento) {
+                        sondaEmAndamento = true; // Esta chamada é a sonda
+                        sonda = ++ultimaPermissao;
+                        return sonda;
+                    }
+                }
+                default -> {
+                }
+            }
+            recusadas.increment();
+            return RECUSADA;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Diz se a permissão é a da sonda do SEMI_ABERTO atual
+    public boolean eSonda(long permissao) {
+        lock.lock();
+        try {
+            return estado == Estado.SEMI_ABERTO && permissao == sonda;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void registrarSucesso(long permissao) {
+        lock.lock();
+        try {
+            // Com o circuito aberto, uma resposta atrasada de antes da abertura não prova que o banco voltou;
+            // no SEMI_ABERTO, quem decide é a sonda
+            if (estado == Estado.ABERTO || (estado == Estado.SEMI_ABERTO && permissao != sonda)) return;
+            estado = Estado.FECHADO;
+            falhasSeguidas = 0;
+            sondaEmAndamento = false;
+            sonda = RECUSADA;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void registrarFalha(long permissao) {
+        lock.lock();
+        try {
+            if (estado == Estado.SEMI_ABERTO) {
+                if (permissao == sonda) abrir(); // A sonda falhou: espera mais um período
+            } else if (estado == Estado.FECHADO && ++falhasSeguidas >= limiteFalhas) {
+                abrir();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Devolve a permissão sem resultado: a chamada terminou com um erro da aplicação (ex: argumento
+     * inválido), que não conta como sucesso nem como falha. Se era a sonda, a próxima chamada vira a sonda.
+     */
+    public void liberar(long permissao) {
+        lock.lock();
+        try {
+            if (estado == Estado.SEMI_ABERTO && permissao == sonda) {
+                sondaEmAndamento = false;
+                sonda = RECUSADA;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void abrir() {
+        estado = Estado.ABERTO;
+        abertoDesde = System.nanoTime();
+        sondaEmAndamento = false;
+        sonda = RECUSADA;
+        falhasSeguidas = 0;
+        aberturas++;
+    }
+
+    public Estado getEstado() {
+        lock.lock();
+        try {
+            return estado;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Metricas getMetricas() {
+        lock.lock();
+        try {
+            return new Metricas(nome, estado, falhasSeguidas, aberturas, recusadas.sum());
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package org.example.Service;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.example.Entity.Cliente;
+import org.example.Entity.Form.ClienteForm;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Modo não interativo: lê um comando por linha, executa em lotes transacionais
+ * e escreve um resultado por linha, em formato fácil de processar por scripts.
+ *
+ * Entrada (campos separados por TAB; linhas vazias ou iniciadas por # são ignoradas):
+ *   create  nome  telefone  email
+ *   update  id  nome  telefone  email  [versao]
+ *   delete  id
+ *   get     id
+ *
+ * Saída (também separada por TAB), na mesma ordem da entrada:
+ *   nºlinha  ok    operacao  id  [nome  telefone  email  versao]
+ *   nºlinha  erro  mensagem
+ *
+ * Cada lote roda em uma única sessão e transação. Se o lote falhar no banco (ex: email repetido),
+ * ele é desfeito e reexecutado um comando por transação, para que só o comando problemático dê erro.
+ *
+ * Como no ClienteDAO, get, update e delete também encontram clientes arquivados (get e update os trazem
+ * de volta para a tabela principal), e create e update recusam emails que pertencem a um cliente arquivado.
+ */
+public class ProcessadorLote {
+
+    private final int tamanhoLote;
+    private final Validator validator;
+
+    private long sucessos;
+    private long falhas;
+
+    public ProcessadorLote(int tamanhoLote, Validator validator) {
+        if (tamanhoLote <= 0) throw new IllegalArgumentException("O tamanho do lote deve ser maior que zero");
+        this.tamanhoLote = tamanhoLote;
+        this.validator = validator;
+    }
+
+    /**
+     * Processa todos os comandos da entrada. A saída não é descarregada a cada linha;
+     * o chamador deve usar um Writer com buffer e fechá-lo (ou chamar flush) ao final.
+     */
+    public void processar(BufferedReader entrada, Writer saida) throws IOException {
+        List<Comando> lote = new ArrayList<>(tamanhoLote);
+        String linha;
+        long numero = 0;
+
+        while ((linha = entrada.readLine()) != null) {
+            numero++;
+            if (linha.isBlank() || linha.startsWith("#")) continue;
+
+            lote.add(interpretar(numero, linha));
+            if (lote.size() == tamanhoLote) {
+                executarLote(lote);
+                escrever(lote, saida);
+                lote.clear();
+            }
+        }
+
+        if (!lote.isEmpty()) {
+            executarLote(lote);
+            escrever(lote, saida);
+        }
+    }
+
+    public long getSucessos() {
+        return sucessos;
+    }
+
+    public long getFalhas() {
+        return falhas;
+    }
+
+    // Converte a linha em comando; erros de formato e de validação já ficam registrados no resultado
+    private Comando interpretar(long numero, String linha) {
+        String[] campos = linha.split("\t", -1);
+        Comando comando = new Comando(numero, campos[0].trim());
+
+        try {
+            switch (comando.operacao) {
+                case "create" -> {
+                    exigirCampos(campos, 4, 4);
+                    comando.form = formulario(campos[1], campos[2], campos[3]);
+                }
+                case "update" -> {
+                    exigirCampos(campos, 5, 6);
+                    comando.id = Long.parseLong(campos[1].trim());
+                    comando.form = formulario(campos[2], campos[3], campos[4]);
+                    if (campos.length == 6 && !campos[5].isBlank()) comando.versao = Long.parseLong(campos[5].trim());
+                }
+                case "delete", "get" -> {
+                    exigirCampos(campos, 2, 2);
+                    comando.id = Long.parseLong(campos[1].trim());
+                }
+                default -> throw new IllegalArgumentException("Operação desconhecida: " + comando.operacao);
+            }
+        } catch (NumberFormatException e) {
+            comando.falhar("ID ou versão inválido");
+            return comando;
+        } catch (IllegalArgumentException e) {
+            comando.falhar(e.getMessage());
+            return comando;
+        }
+
+        if (comando.form != null) {
+            Set<ConstraintViolation<ClienteForm>> erros = validator.validate(comando.form);
+            if (!erros.isEmpty()) {
+                StringBuilder mensagem = new StringBuilder("Erros de validação:");
+                for (ConstraintViolation<ClienteForm> erro : erros) {
+                    mensagem.append(' ').append(erro.getPropertyPath()).append(": ").append(erro.getMessage()).append(';');
+                }
+                comando.falhar(mensagem.toString());
+            }
+        }
+        return comando;
+    }
+
+    private static void exigirCampos(String[] campos, int minimo, int maximo) {
+        if (campos.length < minimo || campos.length > maximo) {
+            throw new IllegalArgumentException("Número de campos inválido para " + campos[0].trim());
+        }
+    }
+
+    private static ClienteForm formulario(String nome, String telefone, String email) {
+        ClienteForm form = new ClienteForm();
+        form.setNome(nome.trim());
+        form.setTelefone(telefone.trim());
+        form.setEmail(email.trim());
+        return form;
+    }
+
+    private void executarLote(List<Comando> lote) {
+        try {
+            executarEmTransacao(lote);
+        } catch (RuntimeException e) {
+            // O lote inteiro foi desfeito: isola o comando que falhou executando um por vez
+            for (Comando comando : lote) {
+                if (comando.falhouAntes) continue;
+                comando.resultado = null;
+                try {
+                    executarEmTransacao(List.of(comando));
+                } catch (RuntimeException erro) {
+                    comando.falhar(mensagemDe(erro));
+                }
+            }
+        }
+    }
+
+    private void executarEmTransacao(List<Comando> comandos) {
+        try (Session session = ClienteDAO.getSessionFactory().openSession()) {
+            Transaction transaction = session.beginTransaction();
+            try {
+                // Uma única consulta ao arquivo para todos os emails gravados pelo lote
+                List<String> emails = new ArrayList<>();
+                for (Comando comando : comandos) {
+                    if (!comando.falhouAntes && comando.form != null) emails.add(comando.form.getEmail());
+                }
+                Map<String, Long> arquivados = emails.isEmpty() ? Map.of()
+                        : ArquivamentoClientes.arquivadosPorEmail(session, emails);
+
+                for (Comando comando : comandos) {
+                    if (!comando.falhouAntes) executar(session, comando, arquivados);
+                }
+                transaction.commit();
+                ClienteDAO.registrarAlteracao(); // Invalida o cache de listagens
+            } catch (RuntimeException e) {
+                // O rollback precisa acontecer com a sessão ainda aberta
+                if (transaction.isActive()) transaction.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private void executar(Session session, Comando comando, Map<String, Long> arquivados) {
+        switch (comando.operacao) {
+            case "create" -> {
+                Long arquivado = arquivados.get(comando.form.getEmail());
+                if (arquivado != null) {
+                    comando.resultado = "erro\t" + ArquivamentoClientes.emailArquivado(comando.form.getEmail(), arquivado).getMessage();
+                    return;
+                }
+                Cliente cliente = new Cliente();
+                cliente.setNome(comando.form.getNome());
+                cliente.setTelefone(comando.form.getTelefone());
+                cliente.setEmail(comando.form.getEmail());
+                session.persist(cliente);
+                comando.resultado = "ok\tcreate\t" + cliente.getIdCliente();
+            }
+            case "update" -> {
+                Cliente cliente = buscar(session, comando.id);
+                Long arquivado = arquivados.get(comando.form.getEmail());
+                if (cliente == null) {
+                    comando.resultado = "erro\tCliente com ID " + comando.id + " não encontrado.";
+                } else if (arquivado != null && !arquivado.equals(comando.id)) {
+                    comando.resultado = "erro\t" + ArquivamentoClientes.emailArquivado(comando.form.getEmail(), arquivado).getMessage();
+                } else if (comando.versao != null && !comando.versao.equals(cliente.getVersao())) {
+                    comando.resultado = "erro\tCliente com ID " + comando.id + " foi alterado por outro usuário (versão atual "
+                            + cliente.getVersao() + ").";
+                } else {
+                    // A alteração é gravada no commit, junto com as demais do lote
+                    cliente.setNome(comando.form.getNome());
+                    cliente.setTelefone(comando.form.getTelefone());
+                    cliente.setEmail(comando.form.getEmail());
+                    // Com versão informada, grava já para que um update seguinte no mesmo lote veja a versão nova
+                    if (comando.versao != null) session.flush();
+                    comando.resultado = "ok\tupdate\t" + comando.id;
+                }
+            }
+            case "delete" -> {
+                Cliente cliente = session.find(Cliente.class, comando.id);
+                boolean arquivado = ArquivamentoClientes.excluir(session, comando.id); // Sai das duas tabelas
+                if (cliente != null) {
+                    session.remove(cliente);
+                    comando.resultado = "ok\tdelete\t" + comando.id;
+                } else if (arquivado) {
+                    comando.resultado = "ok\tdelete\t" + comando.id; // Estava só no arquivo
+                } else {
+                    comando.resultado = "erro\tCliente com ID " + comando.id + " não encontrado.";
+                }
+            }
+            case "get" -> {
+                Cliente cliente = buscar(session, comando.id);
+                ArquivamentoClientes.registrarLeitura(session, cliente);
+                comando.resultado = cliente == null
+                        ? "erro\tCliente com ID " + comando.id + " não encontrado."
+                        : "ok\tget\t" + cliente.getIdCliente() + "\t" + cliente.getNome() + "\t" + cliente.getTelefone()
+                        + "\t" + cliente.getEmail() + "\t" + cliente.getVersao();
+            }
+        }
+    }
+
+    // Busca na tabela principal e, se não estiver lá, traz o cliente de volta do arquivo.
+    // Um conflito na restauração (email já usado) derruba o lote, e o comando é reexecutado sozinho
+    private static Cliente buscar(Session session, Long id) {
+        Cliente cliente = session.find(Cliente.class, id);
+        if (cliente == null && ArquivamentoClientes.restaurar(session, id)) {
+            cliente = session.find(Cliente.class, id);
+        }
+        return cliente;
+    }
+
+    private void escrever(List<Comando> lote, Writer saida) throws IOException {
+        for (Comando comando : lote) {
+            if (comando.resultado.startsWith("ok")) sucessos++;
+            else falhas++;
+            saida.write(Long.toString(comando.numero));
+            saida.write('\t');
+            saida.write(comando.resultado);
+            saida.write('\n');
+        }
+    }
+
+    // Mensagem de erro em uma única linha, sem TABs, para não quebrar o formato de saída
+    private static String mensagemDe(Throwable erro) {
+        Throwable causa = erro;
+        while (causa.getCause() != null && causa.getCause() != causa) causa = causa.getCause();
+        String mensagem = causa.getMessage() != null ? causa.getMessage() : causa.getClass().getSimpleName();
+        return mensagem.replace('\t', ' ').replace('\r', ' ').replace('\n', ' ');
+    }
+
+    // Um comando lido da entrada e o seu resultado (preenchido após a execução)
+    private static final class Comando {
+        final long numero;     // Linha de origem, repetida na saída
+        final String operacao;
+        Long id;
+        Long versao;
+        ClienteForm form;
+        String resultado;
+        boolean falhouAntes;   // Erro de formato ou validação: não chega ao banco
+
+        Comando(long numero, String operacao) {
+            this.numero = numero;
+            this.operacao = operacao;
+        }
+
+        void falhar(String mensagem) {
+            resultado = "erro\t" + mensagem.replace('\t', ' ');
+            falhouAntes = true;
+        }
+    }
+}
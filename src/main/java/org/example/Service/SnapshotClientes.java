@@ -0,0 +1,432 @@
+package org.example.Service;
+
+import org.hibernate.Session;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Snapshot binário da tabela cliente, para backup e para recarregar ambientes de teste rapidamente.
+ *
+ * Formato do arquivo:
+ *   cabeçalho: "CLSN" | versão do formato (int) | criado em (long, epoch ms)
+ *   blocos:    tamanho bruto (int) | tamanho comprimido (int) | CRC32C do bloco bruto (int) | bytes em Deflate
+ *   final:     tamanho bruto = 0 | total de linhas (long)
+ *
+ * Cada bloco bruto (~1 MiB) contém registros: id (long) | versao (long) | ultima_atividade (long, epoch ms)
+ * | nome | email | telefone, com os textos em UTF-8 prefixados pelo tamanho (varint). A versão 1 do formato
+ * não tinha ultima_atividade; ao restaurá-la, a data do banco no momento da restauração é usada.
+ * A leitura e a escrita usam FileChannel com buffers reaproveitados; a gravação no banco é feita com INSERT em lote via JDBC.
+ * Na restauração, o arquivo inteiro é conferido antes de qualquer alteração no banco, e a carga roda em uma
+ * única transação: um arquivo corrompido ou um erro no meio da carga deixam a tabela como estava.
+ * Só a tabela principal entra no snapshot; os clientes arquivados (cliente_arquivo) ficam de fora.
+ * Como um mesmo ID ou email não pode estar nas duas tabelas, a restauração com substituir remove do
+ * arquivo as cópias dos clientes do snapshot (a versão do snapshot prevalece); sem substituir, um ID
+ * ou email do snapshot que já esteja no arquivo faz a restauração inteira ser recusada.
+ */
+public class SnapshotClientes {
+
+    private static final byte[] ASSINATURA = {'C', 'L', 'S', 'N'};
+    private static final int VERSAO_FORMATO = 2;
+    private static final int TAMANHO_BLOCO = 1 << 20;    // Tamanho alvo do bloco bruto
+    private static final int TAMANHO_CABECALHO_BLOCO = 12;
+    private static final int FETCH_SIZE = 10_000;        // Linhas buscadas por ida ao banco na exportação
+    private static final int TAMANHO_LOTE_INSERT = 5_000; // Linhas por executeBatch na restauração
+
+    // Resultado de uma exportação ou restauração
+    public record Resumo(long linhas, long bytes, long milissegundos) {
+    }
+
+    /**
+     * Grava todas as linhas da tabela cliente no arquivo informado (sobrescrevendo-o).
+     */
+    public Resumo exportar(Path arquivo) throws IOException {
+        long inicio = System.nanoTime();
+
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             Session session = ClienteDAO.getSessionFactory().openSession()) {
+
+            EscritorBlocos escritor = new EscritorBlocos(canal);
+            escritor.cabecalho();
+
+            long linhas = session.doReturningWork(conexao -> {
+                try (Statement stmt = conexao.createStatement()) {
+                    stmt.setFetchSize(FETCH_SIZE); // Lê em streaming em vez de carregar a tabela inteira
+                    ResultSet rs = stmt.executeQuery(
+                            "SELECT id_cliente, versao, ultima_atividade, nome, email, telefone FROM cliente ORDER BY id_cliente");
+                    long total = 0;
+                    while (rs.next()) {
+                        escritor.registro(rs.getLong(1), rs.getLong(2), rs.getTimestamp(3).getTime(),
+                                rs.getString(4), rs.getString(5), rs.getString(6));
+                        total++;
+                    }
+                    return total;
+                } catch (IOException e) {
+                    throw new SQLException("Erro ao gravar o snapshot: " + e.getMessage(), e);
+                }
+            });
+
+            escritor.finalizar(linhas);
+            canal.force(true);
+            return new Resumo(linhas, canal.size(), (System.nanoTime() - inicio) / 1_000_000);
+        }
+    }
+
+    /**
+     * Carrega o snapshot na tabela cliente. Com {@code substituir}, apaga as linhas atuais antes.
+     * Os IDs originais são preservados. O arquivo é inteiro conferido (CRC de cada bloco e total de linhas)
+     * antes de a tabela ser tocada; depois, tudo é gravado em uma única transação.
+     */
+    public Resumo restaurar(Path arquivo, boolean substituir) throws IOException {
+        long inicio = System.nanoTime();
+
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ);
+             Session session = ClienteDAO.getSessionFactory().openSession()) {
+
+            // Primeira passada só confere o arquivo: um final corrompido não pode apagar a tabela atual
+            conferir(canal);
+            canal.position(0);
+
+            LeitorBlocos leitor = new LeitorBlocos(canal);
+            leitor.cabecalho();
+
+            long linhas = session.doReturningWork(conexao -> {
+                try {
+                    return inserir(conexao, leitor, substituir);
+                } catch (IOException e) {
+                    throw new SQLException("Erro ao ler o snapshot: " + e.getMessage(), e);
+                }
+            });
+            ClienteDAO.registrarAlteracao(); // A tabela mudou: invalida o cache de listagens
+            return new Resumo(linhas, canal.size(), (System.nanoTime() - inicio) / 1_000_000);
+        }
+    }
+
+    // Lê o arquivo inteiro sem tocar no banco: confere CRCs, registros e o total do rodapé
+    private static void conferir(FileChannel canal) throws IOException {
+        LeitorBlocos leitor = new LeitorBlocos(canal);
+        leitor.cabecalho();
+        long linhas = 0;
+        ByteBuffer bloco;
+        try {
+            while ((bloco = leitor.proximoBloco()) != null) {
+                while (bloco.hasRemaining()) {
+                    bloco.position(bloco.position() + (leitor.versaoFormato >= 2 ? 24 : 16));
+                    for (int i = 0; i < 3; i++) { // nome, email, telefone
+                        int tamanho = lerVarint(bloco);
+                        bloco.position(bloco.position() + tamanho);
+                    }
+                    linhas++;
+                }
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) { // Registro atravessa o fim do bloco
+            throw new IOException("Snapshot corrompido: registro incompleto", e);
+        }
+        if (linhas != leitor.totalDeclarado()) {
+            throw new IOException("Snapshot corrompido: " + linhas + " linha(s) lida(s), "
+                    + leitor.totalDeclarado() + " esperada(s)");
+        }
+    }
+
+    private long inserir(Connection conexao, LeitorBlocos leitor, boolean substituir) throws SQLException, IOException {
+        String banco = conexao.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+        boolean mysql = banco.contains("mariadb") || banco.contains("mysql");
+        boolean autoCommit = conexao.getAutoCommit();
+        conexao.setAutoCommit(false);
+
+        try (Statement stmt = conexao.createStatement()) {
+            try {
+                if (mysql) {
+                    // Variáveis só desta sessão; voltam ao normal no finally, mesmo em caso de erro
+                    stmt.execute("SET FOREIGN_KEY_CHECKS = 0");
+                    // Sem as linhas antigas, só o próprio snapshot poderia repetir um email ou ID
+                    if (substituir) stmt.execute("SET UNIQUE_CHECKS = 0");
+                }
+                long linhas = carregar(conexao, stmt, leitor, substituir);
+
+                if (banco.contains("h2")) {
+                    // No H2 a coluna IDENTITY não avança sozinha com IDs explícitos. Os IDs arquivados também
+                    // contam: um ID novo igual ao de um cliente arquivado travaria o próximo arquivamento
+                    try (ResultSet rs = stmt.executeQuery("SELECT GREATEST(COALESCE(MAX(id_cliente), 0), " +
+                            "(SELECT COALESCE(MAX(id_cliente), 0) FROM cliente_arquivo)) + 1 FROM cliente")) {
+                        rs.next();
+                        stmt.execute("ALTER TABLE cliente ALTER COLUMN id_cliente RESTART WITH " + rs.getLong(1));
+                    }
+                }
+                conexao.commit();
+                return linhas;
+            } catch (SQLException | IOException | RuntimeException e) {
+                conexao.rollback(); // Nada foi confirmado: a tabela volta ao estado anterior
+                throw e;
+            } finally {
+                if (mysql) {
+                    stmt.execute("SET UNIQUE_CHECKS = 1");
+                    stmt.execute("SET FOREIGN_KEY_CHECKS = 1");
+                }
+            }
+        } finally {
+            conexao.setAutoCommit(autoCommit);
+        }
+    }
+
+    // Apaga as linhas atuais (se pedido) e insere os registros do snapshot, sem confirmar a transação
+    private static long carregar(Connection conexao, Statement stmt, LeitorBlocos leitor, boolean substituir)
+            throws SQLException, IOException {
+        if (substituir) stmt.executeUpdate("DELETE FROM cliente");
+
+        long linhas = 0;
+        try (PreparedStatement insert = conexao.prepareStatement(
+                "INSERT INTO cliente (id_cliente, versao, ultima_atividade, nome, email, telefone) " +
+                        "VALUES (?, ?, COALESCE(?, CURRENT_TIMESTAMP(6)), ?, ?, ?)")) { // Versão 1: data do banco
+            ByteBuffer bloco;
+            while ((bloco = leitor.proximoBloco()) != null) {
+                while (bloco.hasRemaining()) {
+                    insert.setLong(1, bloco.getLong());
+                    insert.setLong(2, bloco.getLong());
+                    insert.setTimestamp(3, leitor.versaoFormato >= 2 ? new Timestamp(bloco.getLong()) : null);
+                    insert.setString(4, lerTexto(bloco));
+                    insert.setString(5, lerTexto(bloco));
+                    insert.setString(6, lerTexto(bloco));
+                    insert.addBatch();
+                    linhas++;
+
+                    if (linhas % TAMANHO_LOTE_INSERT == 0) insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+
+        if (linhas != leitor.totalDeclarado()) {
+            throw new IOException("Snapshot corrompido: " + linhas + " linha(s) lida(s), "
+                    + leitor.totalDeclarado() + " esperada(s)");
+        }
+        conciliarArquivo(stmt, substituir);
+        return linhas;
+    }
+
+    // Nenhum ID ou email pode ficar ao mesmo tempo na tabela principal e no arquivo
+    private static void conciliarArquivo(Statement stmt, boolean substituir) throws SQLException {
+        if (substituir) {
+            // A tabela principal é exatamente o snapshot: as cópias arquivadas dos mesmos clientes saem
+            stmt.executeUpdate("DELETE FROM cliente_arquivo WHERE id_cliente IN (SELECT id_cliente FROM cliente) " +
+                    "OR email IN (SELECT email FROM cliente)");
+            return;
+        }
+        try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM cliente_arquivo a WHERE EXISTS " +
+                "(SELECT 1 FROM cliente c WHERE c.id_cliente = a.id_cliente OR c.email = a.email)")) {
+            rs.next();
+            long conflitos = rs.getLong(1);
+            if (conflitos > 0) {
+                throw new SQLIntegrityConstraintViolationException(conflitos + " cliente(s) do snapshot já estão no arquivo "
+                        + "(mesmo ID ou email); use --substituir ou restaure em uma base sem esses clientes arquivados");
+            }
+        }
+    }
+
+    private static String lerTexto(ByteBuffer bloco) {
+        int tamanho = lerVarint(bloco);
+        String texto = new String(bloco.array(), bloco.arrayOffset() + bloco.position(), tamanho, StandardCharsets.UTF_8);
+        bloco.position(bloco.position() + tamanho);
+        return texto;
+    }
+
+    private static int lerVarint(ByteBuffer bloco) {
+        int valor = 0;
+        int deslocamento = 0;
+        byte b;
+        do {
+            b = bloco.get();
+            valor |= (b & 0x7F) << deslocamento;
+            deslocamento += 7;
+        } while (b < 0);
+        return valor;
+    }
+
+    // Monta blocos brutos, comprime e grava no canal
+    private static final class EscritorBlocos {
+        private final FileChannel canal;
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private final CRC32C crc = new CRC32C();
+        private ByteBuffer bruto = ByteBuffer.allocate(TAMANHO_BLOCO + 4_096);
+        private byte[] comprimido = new byte[TAMANHO_BLOCO + TAMANHO_BLOCO / 8];
+        private final ByteBuffer cabecalhoBloco = ByteBuffer.allocate(TAMANHO_CABECALHO_BLOCO);
+
+        EscritorBlocos(FileChannel canal) {
+            this.canal = canal;
+        }
+
+        void cabecalho() throws IOException {
+            ByteBuffer cabecalho = ByteBuffer.allocate(16);
+            cabecalho.put(ASSINATURA).putInt(VERSAO_FORMATO).putLong(System.currentTimeMillis()).flip();
+            escreverTudo(cabecalho);
+        }
+
+        void registro(long id, long versao, long ultimaAtividade, String nome, String email, String telefone) throws IOException {
+            byte[] nomeBytes = nome.getBytes(StandardCharsets.UTF_8);
+            byte[] emailBytes = email.getBytes(StandardCharsets.UTF_8);
+            byte[] telefoneBytes = telefone.getBytes(StandardCharsets.UTF_8);
+            int tamanho = 24 + 15 + nomeBytes.length + emailBytes.length + telefoneBytes.length;
+
+            if (bruto.position() > 0 && bruto.position() + tamanho > TAMANHO_BLOCO) gravarBloco();
+            if (tamanho > bruto.remaining()) { // Registro maior que um bloco inteiro (raro)
+                bruto = ByteBuffer.allocate(tamanho);
+            }
+
+            bruto.putLong(id).putLong(versao).putLong(ultimaAtividade);
+            escreverTexto(nomeBytes);
+            escreverTexto(emailBytes);
+            escreverTexto(telefoneBytes);
+        }
+
+        void finalizar(long linhas) throws IOException {
+            if (bruto.position() > 0) gravarBloco();
+            ByteBuffer rodape = ByteBuffer.allocate(12);
+            rodape.putInt(0).putLong(linhas).flip();
+            escreverTudo(rodape);
+            deflater.end();
+        }
+
+        private void escreverTexto(byte[] bytes) {
+            int valor = bytes.length;
+            while ((valor & ~0x7F) != 0) {
+                bruto.put((byte) ((valor & 0x7F) | 0x80));
+                valor >>>= 7;
+            }
+            bruto.put((byte) valor);
+            bruto.put(bytes);
+        }
+
+        private void gravarBloco() throws IOException {
+            int tamanhoBruto = bruto.position();
+            crc.reset();
+            crc.update(bruto.array(), 0, tamanhoBruto);
+
+            deflater.reset();
+            deflater.setInput(bruto.array(), 0, tamanhoBruto);
+            deflater.finish();
+            int tamanhoComprimido = 0;
+            while (!deflater.finished()) {
+                if (tamanhoComprimido == comprimido.length) {
+                    comprimido = Arrays.copyOf(comprimido, comprimido.length * 2);
+                }
+                tamanhoComprimido += deflater.deflate(comprimido, tamanhoComprimido, comprimido.length - tamanhoComprimido);
+            }
+
+            cabecalhoBloco.clear();
+            cabecalhoBloco.putInt(tamanhoBruto).putInt(tamanhoComprimido).putInt((int) crc.getValue()).flip();
+            escreverTudo(cabecalhoBloco);
+            escreverTudo(ByteBuffer.wrap(comprimido, 0, tamanhoComprimido));
+
+            if (bruto.capacity() > TAMANHO_BLOCO + 4_096) bruto = ByteBuffer.allocate(TAMANHO_BLOCO + 4_096);
+            bruto.clear();
+        }
+
+        private void escreverTudo(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) canal.write(buffer);
+        }
+    }
+
+    // Lê, confere e descomprime os blocos do canal
+    private static final class LeitorBlocos {
+        private final FileChannel canal;
+        private final Inflater inflater = new Inflater();
+        private final CRC32C crc = new CRC32C();
+        private final ByteBuffer cabecalhoBloco = ByteBuffer.allocate(TAMANHO_CABECALHO_BLOCO);
+        private ByteBuffer comprimido = ByteBuffer.allocate(TAMANHO_BLOCO);
+        private ByteBuffer bruto = ByteBuffer.allocate(TAMANHO_BLOCO + 4_096);
+        private long totalDeclarado = -1;
+        private int versaoFormato;
+
+        LeitorBlocos(FileChannel canal) {
+            this.canal = canal;
+        }
+
+        void cabecalho() throws IOException {
+            ByteBuffer cabecalho = ByteBuffer.allocate(16);
+            lerTudo(cabecalho);
+            byte[] assinatura = new byte[4];
+            cabecalho.get(assinatura);
+            if (!Arrays.equals(assinatura, ASSINATURA)) {
+                throw new IOException("O arquivo não é um snapshot de clientes");
+            }
+            versaoFormato = cabecalho.getInt();
+            if (versaoFormato < 1 || versaoFormato > VERSAO_FORMATO) {
+                throw new IOException("Versão de snapshot não suportada: " + versaoFormato);
+            }
+        }
+
+        // Devolve o próximo bloco bruto pronto para leitura, ou null ao chegar ao final
+        ByteBuffer proximoBloco() throws IOException {
+            cabecalhoBloco.clear().limit(4);
+            lerTudo(cabecalhoBloco);
+            int tamanhoBruto = cabecalhoBloco.getInt();
+
+            if (tamanhoBruto == 0) { // Rodapé
+                ByteBuffer rodape = ByteBuffer.allocate(8);
+                lerTudo(rodape);
+                totalDeclarado = rodape.getLong();
+                inflater.end();
+                return null;
+            }
+
+            cabecalhoBloco.clear().position(4);
+            lerTudo(cabecalhoBloco);
+            int tamanhoComprimido = cabecalhoBloco.getInt();
+            int crcEsperado = cabecalhoBloco.getInt();
+            if (tamanhoBruto < 0 || tamanhoComprimido < 0) throw new IOException("Snapshot corrompido: cabeçalho de bloco inválido");
+
+            if (comprimido.capacity() < tamanhoComprimido) comprimido = ByteBuffer.allocate(tamanhoComprimido);
+            if (bruto.capacity() < tamanhoBruto) bruto = ByteBuffer.allocate(tamanhoBruto);
+            comprimido.clear().limit(tamanhoComprimido);
+            lerTudo(comprimido);
+
+            inflater.reset();
+            inflater.setInput(comprimido.array(), 0, tamanhoComprimido);
+            try {
+                int lidos = inflater.inflate(bruto.array(), 0, tamanhoBruto);
+                if (lidos != tamanhoBruto || !inflater.finished()) throw new IOException("Snapshot corrompido: bloco truncado");
+            } catch (DataFormatException e) {
+                throw new IOException("Snapshot corrompido: " + e.getMessage(), e);
+            }
+
+            crc.reset();
+            crc.update(bruto.array(), 0, tamanhoBruto);
+            if ((int) crc.getValue() != crcEsperado) throw new IOException("Snapshot corrompido: CRC do bloco não confere");
+
+            bruto.clear().limit(tamanhoBruto);
+            return bruto;
+        }
+
+        long totalDeclarado() {
+            return totalDeclarado;
+        }
+
+        // Preenche o buffer até o limite; a posição volta a zero (pronto para leitura)
+        private void lerTudo(ByteBuffer buffer) throws IOException {
+            int inicio = buffer.position();
+            while (buffer.hasRemaining()) {
+                if (canal.read(buffer) < 0) throw new IOException("Snapshot corrompido: fim inesperado do arquivo");
+            }
+            buffer.position(inicio);
+        }
+    }
+}
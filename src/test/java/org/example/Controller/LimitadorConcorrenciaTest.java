@@ -0,0 +1,73 @@
+package org.example.Controller;
+
+import org.example.Exception.SobrecargaException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica o limite adaptativo e a recusa de quem passa do limite.
+ */
+class LimitadorConcorrenciaTest {
+
+    @Test
+    void limiteDiminuiComLatenciaAltaEVoltaACrescer() throws InterruptedException {
+        LimitadorConcorrencia limitador = new LimitadorConcorrencia("teste", 20, 2, 40, 100, 5, TimeUnit.SECONDS);
+
+        for (int i = 0; i < 50; i++) limitador.executar(() -> dormir(1)); // Latência de referência: 1 ms
+        for (int i = 0; i < 30; i++) limitador.executar(() -> dormir(10)); // O "banco" ficou lento
+        int reduzido = limitador.getMetricas().limite();
+        assertTrue(reduzido < 10, "o limite deveria cair com a latência alta, ficou em " + reduzido);
+
+        // Latência normal de novo, com demanda para ocupar todas as vagas
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        for (int i = 0; i < 800; i++) executor.execute(() -> limitador.executar(() -> dormir(1)));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        int recuperado = limitador.getMetricas().limite();
+        assertTrue(recuperado > reduzido, "o limite deveria voltar a crescer: " + reduzido + " -> " + recuperado);
+        assertEquals(0, limitador.getMetricas().rejeitadas());
+    }
+
+    @Test
+    void recusaQuemPassaDoLimiteComFilaCheia() {
+        LimitadorConcorrencia limitador = new LimitadorConcorrencia("teste", 1, 1, 1, 0, 1, TimeUnit.SECONDS);
+
+        // A operação de fora ocupa a única vaga; a de dentro não tem vaga nem lugar na fila
+        SobrecargaException erro = assertThrows(SobrecargaException.class,
+                () -> limitador.executar(() -> limitador.executar(() -> { })));
+        assertTrue(erro.getMessage().contains("fila cheia"), erro.getMessage());
+
+        LimitadorConcorrencia.Metricas metricas = limitador.getMetricas();
+        assertEquals(1, metricas.admitidas());
+        assertEquals(1, metricas.rejeitadas());
+        assertEquals(0, metricas.emExecucao()); // A vaga foi devolvida mesmo com a exceção
+    }
+
+    @Test
+    void recusaQuemEsperaDemaisNaFila() {
+        LimitadorConcorrencia limitador = new LimitadorConcorrencia("teste", 1, 1, 1, 1, 50, TimeUnit.MILLISECONDS);
+
+        long inicio = System.nanoTime();
+        SobrecargaException erro = assertThrows(SobrecargaException.class,
+                () -> limitador.executar(() -> limitador.executar(() -> { })));
+        assertTrue(erro.getMessage().contains("tempo de espera"), erro.getMessage());
+        assertTrue(System.nanoTime() - inicio >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(0, limitador.getMetricas().emFila());
+    }
+
+    private static void dormir(long milissegundos) {
+        try {
+            Thread.sleep(milissegundos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.Monitoramento; // Define o pacote de monitoramento
+
+import org.example.Entity.Cliente;
+import org.example.Entity.Form.ClienteForm;
+import org.example.Exception.ConflitoVersaoException;
+import org.example.Repository.ClienteRepository;
+import org.example.Repository.ResultadoUpsert;
+import org.example.Service.ArquivamentoClientes;
+import org.example.Service.ClienteDAO;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica o "orçamento" de idas ao banco de cada operação do ClienteRepository.
+ *
+ * Executa cada operação contra o H2 embarcado (configurado no surefire, no pom.xml) e compara os
+ * comandos SQL e as conexões obtidas com o máximo permitido. Todas as operações são medidas antes
+ * da asserção, para que a falha liste de uma vez tudo o que passou do orçamento.
+ * Ao mudar uma operação de propósito, ajuste o orçamento dela aqui.
+ */
+class VerificacaoOrcamentoSqlTest {
+
+    private final ClienteRepository repository = new ClienteDAO();
+    private final List<String> violacoes = new ArrayList<>();
+    private int sequencia;
+
+    /**
+     * Executa as operações e registra as que ultrapassarem o orçamento.
+     * Os orçamentos são: comandos SQL e conexões obtidas por chamada.
+     */
+    @Test
+    void operacoesRespeitamOrcamento() {
+        // Gravações de email novo consultam antes o arquivo (o índice único só vale na tabela principal)
+        Cliente cliente = medir("create", 2, 1, () -> repository.create(formulario()));
+        Long id = cliente.getIdCliente();
+
+        medir("get (existente)", 1, 1, () -> repository.get(id));
+        // Sem o cliente na tabela principal, o get também procura no arquivo (INSERT ... SELECT que não encontra nada)
+        medir("get (inexistente)", 2, 1, () -> repository.get(-1L));
+        medir("getAll (sem filtro)", 1, 1, () -> repository.getAll(""));
+        medir("getAll (com filtro)", 1, 1, () -> repository.getAll(cliente.getEmail()));
+        // Sem escrita desde a última listagem, o resultado vem do cache, sem ir ao banco
+        medir("getAll (repetido)", 0, 0, () -> repository.getAll(cliente.getEmail()));
+        medir("getAll (paginado)", 1, 1, () -> repository.getAll("", 0, 10));
+
+        // update e delete carregam o cliente antes de gravar: find + comando
+        Cliente atualizado = medir("update", 2, 1, () -> repository.update(id, formulario(cliente.getEmail())));
+        Cliente versionado = medir("update versionado", 1, 1,
+                () -> repository.update(id, formulario(cliente.getEmail()), atualizado.getVersao()));
+        medir("update versionado (conflito)", 2, 1, () -> {
+            try {
+                return repository.update(id, formulario(cliente.getEmail()), versionado.getVersao() - 1);
+            } catch (ConflitoVersaoException esperado) {
+                return null;
+            }
+        });
+        // Upsert por email: consulta ao arquivo + um comando (o lote inteiro vai em uma única ida)
+        // O resultado por linha também é conferido: é o que diferencia o upsert de um INSERT simples
+        assertEquals(ResultadoUpsert.INSERIDO,
+                medir("createOrUpdate (inserção)", 2, 1, () -> repository.createOrUpdate(formulario())));
+        assertEquals(ResultadoUpsert.ATUALIZADO,
+                medir("createOrUpdate (atualização)", 2, 1, () -> repository.createOrUpdate(formulario(cliente.getEmail()))));
+        assertEquals(List.of(ResultadoUpsert.INSERIDO, ResultadoUpsert.ATUALIZADO, ResultadoUpsert.INSERIDO),
+                medir("upsertAll (3 clientes)", 2, 1,
+                        () -> repository.upsertAll(List.of(formulario(), formulario(cliente.getEmail()), formulario()))));
+
+        // delete: find + comando + remoção de uma eventual cópia no arquivo
+        medir("delete", 3, 1, () -> {
+            repository.delete(id);
+            return null;
+        });
+
+        // Cliente arquivado: find + restauração (INSERT ... SELECT e DELETE no arquivo) + find
+        Long idArquivado = repository.create(formulario()).getIdCliente();
+        new ArquivamentoClientes(Duration.ZERO, 1_000).arquivarTudo();
+        medir("get (arquivado)", 4, 1, () -> repository.get(idArquivado));
+
+        assertTrue(violacoes.isEmpty(), () -> "Operações acima do orçamento de SQL:\n- " + String.join("\n- ", violacoes));
+    }
+
+    private <T> T medir(String operacao, int maxComandos, int maxConexoes, Supplier<T> chamada) {
+        ContadorSql.Marca inicio = ContadorSql.marcar();
+        T resultado = chamada.get();
+        ContadorSql.Marca custo = inicio.desde();
+
+        boolean dentro = custo.comandos() <= maxComandos && custo.conexoes() <= maxConexoes;
+        System.out.printf("%-30s comandos %d/%d | conexões %d/%d %s\n", operacao,
+                custo.comandos(), maxComandos, custo.conexoes(), maxConexoes, dentro ? "" : "<- ACIMA DO ORÇAMENTO");
+        if (!dentro) {
+            violacoes.add(operacao + ": " + custo.comandos() + " comando(s) (máx. " + maxComandos + "), "
+                    + custo.conexoes() + " conexão(ões) (máx. " + maxConexoes + ")");
+        }
+        return resultado;
+    }
+
+    private ClienteForm formulario() {
+        return formulario("orcamento-" + (++sequencia) + "@exemplo.com");
+    }
+
+    private ClienteForm formulario(String email) {
+        ClienteForm form = new ClienteForm();
+        form.setNome("Orçamento " + (++sequencia));
+        form.setTelefone("11999990000");
+        form.setEmail(email);
+        return form;
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.Service;
+
+import org.example.Entity.Cliente;
+import org.example.Entity.Form.ClienteForm;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica que um cliente nunca fica ao mesmo tempo na tabela principal e no arquivo,
+ * inclusive depois de restaurar um snapshot.
+ */
+class ArquivamentoClientesTest {
+
+    private final ClienteDAO dao = new ClienteDAO();
+    private final ArquivamentoClientes arquivamento = new ArquivamentoClientes(Duration.ZERO, 1_000);
+
+    @TempDir
+    Path pasta;
+
+    @Test
+    void snapshotRestauradoSobreOArquivoNaoTravaOArquivamento() throws IOException {
+        Long id = dao.create(formulario()).getIdCliente();
+        Path arquivo = pasta.resolve("clientes.snap");
+        new SnapshotClientes().exportar(arquivo);
+
+        arquivamento.arquivarTudo();
+        assertEquals(1, contar("cliente_arquivo", id));
+
+        new SnapshotClientes().restaurar(arquivo, true);
+        assertEquals(1, contar("cliente", id));
+        assertEquals(0, contar("cliente_arquivo", id)); // A cópia arquivada deu lugar à do snapshot
+
+        arquivamento.arquivarTudo(); // Sem o mesmo ID nas duas tabelas, o próximo arquivamento não falha
+        assertEquals(0, contar("cliente", id));
+        assertEquals(1, contar("cliente_arquivo", id));
+
+        dao.delete(id);
+        assertNull(dao.get(id));
+    }
+
+    @Test
+    void snapshotSemSubstituirRecusaClienteArquivado() throws IOException {
+        Long id = dao.create(formulario()).getIdCliente();
+        Path arquivo = pasta.resolve("clientes.snap");
+        new SnapshotClientes().exportar(arquivo);
+        arquivamento.arquivarTudo();
+
+        assertThrows(RuntimeException.class, () -> new SnapshotClientes().restaurar(arquivo, false));
+        assertEquals(0, contar("cliente", id));
+        assertEquals(1, contar("cliente_arquivo", id));
+    }
+
+    @Test
+    void deleteRemoveTambemACopiaArquivada() {
+        Long id = dao.create(formulario()).getIdCliente();
+        // Estado deixado por versões antigas da restauração de snapshot: o cliente nas duas tabelas
+        executar("INSERT INTO cliente_arquivo (id_cliente, nome, email, telefone, versao, ultima_atividade, arquivado_em) " +
+                "SELECT id_cliente, nome, email, telefone, versao, ultima_atividade, CURRENT_TIMESTAMP FROM cliente " +
+                "WHERE id_cliente = " + id);
+
+        dao.delete(id);
+        assertNull(dao.get(id)); // A cópia do arquivo não volta
+        assertEquals(0, contar("cliente_arquivo", id));
+    }
+
+    @Test
+    void leituraContaComoAtividade() {
+        Long id = dao.create(formulario()).getIdCliente();
+        executar("UPDATE cliente SET ultima_atividade = TIMESTAMPADD(DAY, -30, CURRENT_TIMESTAMP) WHERE id_cliente = " + id);
+
+        assertNotNull(dao.get(id));
+        LocalDateTime atividade = dao.get(id).getUltimaAtividade();
+        assertTrue(atividade.isAfter(LocalDateTime.now().minusDays(1)), "a leitura deveria renovar a atividade: " + atividade);
+
+        // Ativo de novo: um arquivamento de clientes parados há 7 dias não o leva
+        new ArquivamentoClientes(Duration.ofDays(7), 1_000).arquivarTudo();
+        assertEquals(1, contar("cliente", id));
+    }
+
+    private static long contar(String tabela, Long id) {
+        try (Session session = ClienteDAO.getSessionFactory().openSession()) {
+            return session.createNativeQuery("SELECT COUNT(*) FROM " + tabela + " WHERE id_cliente = :id", Long.class)
+                    .setParameter("id", id)
+                    .getSingleResult();
+        }
+    }
+
+    private static void executar(String sql) {
+        try (Session session = ClienteDAO.getSessionFactory().openSession()) {
+            Transaction transaction = session.beginTransaction();
+            session.createNativeMutationQuery(sql).executeUpdate();
+            transaction.commit();
+        }
+    }
+
+    private static ClienteForm formulario() {
+        ClienteForm form = new ClienteForm();
+        form.setNome("Arquivamento");
+        form.setTelefone("11999990000");
+        form.setEmail("arquivamento-" + System.nanoTime() + "@exemplo.com");
+        return form;
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.Service;
+
+import org.example.Entity.Cliente;
+import org.example.Entity.Form.ClienteForm;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Verifica a invalidação do cache de listagens por escrita e o isolamento das cópias entregues.
+ */
+class CacheConsultasClientesTest {
+
+    private final CacheConsultasClientes cache = new CacheConsultasClientes(ClienteDAO.PESO_PADRAO_CACHE);
+    private final CacheConsultasClientes.Chave chave = new CacheConsultasClientes.Chave("", 0, -1);
+
+    @Test
+    void escritaEntreDuasConsultasInvalidaAListagem() {
+        AtomicInteger consultas = new AtomicInteger();
+        cache.obter(chave, () -> lista(consultas.incrementAndGet()));
+        cache.obter(chave, () -> lista(consultas.incrementAndGet()));
+        assertEquals(1, consultas.get()); // Sem escrita, a segunda vem da memória
+
+        ClienteDAO.registrarAlteracao();
+        List<Cliente> depois = cache.obter(chave, () -> lista(consultas.incrementAndGet()));
+        assertEquals(2, consultas.get());
+        assertEquals("Cliente 2", depois.get(0).getNome());
+    }
+
+    @Test
+    void escritaPeloDaoAtualizaAListagemFiltrada() {
+        ClienteDAO dao = new ClienteDAO(cache);
+        String email = "cache-" + System.nanoTime() + "@exemplo.com";
+        Long id = dao.create(formulario("Nome Antigo", email)).getIdCliente();
+
+        assertEquals("Nome Antigo", dao.getAll(email).get(0).getNome());
+        dao.update(id, formulario("Nome Novo", email));
+        assertEquals("Nome Novo", dao.getAll(email).get(0).getNome());
+    }
+
+    @Test
+    void alterarOClienteRecebidoNaoMudaOCache() {
+        List<Cliente> primeira = cache.obter(chave, () -> lista(1));
+        primeira.get(0).setNome("Alterado pelo chamador");
+
+        List<Cliente> segunda = cache.obter(chave, () -> lista(99));
+        assertEquals("Cliente 1", segunda.get(0).getNome()); // Acerto, com o valor guardado intacto
+        segunda.get(0).setNome("Alterado de novo");
+
+        assertEquals("Cliente 1", cache.obter(chave, () -> lista(99)).get(0).getNome());
+        assertEquals(2, cache.getMetricas().acertos());
+    }
+
+    private static List<Cliente> lista(int numero) {
+        Cliente cliente = new Cliente();
+        cliente.setIdCliente((long) numero);
+        cliente.setNome("Cliente " + numero);
+        cliente.setEmail("cliente" + numero + "@exemplo.com");
+        cliente.setTelefone("11999990000");
+        cliente.setVersao(0L);
+        return new ArrayList<>(List.of(cliente));
+    }
+
+    private static ClienteForm formulario(String nome, String email) {
+        ClienteForm form = new ClienteForm();
+        form.setNome(nome);
+        form.setTelefone("11999990000");
+        form.setEmail(email);
+        return form;
+    }
+}
@@ -0,0 +1,166 @@
+package org.example.Service;
+
+import org.example.Carga.ProvedorConexoesComFalhas;
+import org.example.Entity.Cliente;
+import org.example.Entity.Form.ClienteForm;
+import org.example.Repository.Leitura;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica o modo resiliente contra o H2 embarcado, com o banco "fora do ar" simulado pelo
+ * ProvedorConexoesComFalhas (configurado no surefire, no pom.xml).
+ */
+class ClienteRepositoryResilienteTest {
+
+    private final ClienteDAO dao = new ClienteDAO();
+
+    @AfterEach
+    void normalizar() {
+        ProvedorConexoesComFalhas.normalizar();
+    }
+
+    @Test
+    void disjuntorAbreServeDesatualizadoERecupera() throws InterruptedException {
+        DisjuntorCircuito disjuntor = new DisjuntorCircuito("teste", 2, 500, TimeUnit.MILLISECONDS);
+        try (ClienteRepositoryResiliente resiliente =
+                     new ClienteRepositoryResiliente(dao, Duration.ofSeconds(2), disjuntor, 100)) {
+            Long id = dao.create(formulario("Antes da Queda")).getIdCliente();
+            assertFalse(resiliente.ler(id).desatualizado());
+
+            // Banco fora do ar: as falhas seguidas abrem o circuito, e o último valor é servido marcado
+            ProvedorConexoesComFalhas.definirTaxaFalha(1.0);
+            for (int i = 0; i < 2; i++) {
+                Leitura<Cliente> leitura = resiliente.ler(id);
+                assertTrue(leitura.desatualizado());
+                assertEquals("Antes da Queda", leitura.valor().getNome());
+            }
+            assertEquals(DisjuntorCircuito.Estado.ABERTO, disjuntor.getEstado());
+            assertTrue(resiliente.ler(id).desatualizado()); // Circuito aberto: nem tenta o banco
+
+            // Banco de volta: passado o tempo aberto, a sonda lê do banco e fecha o circuito
+            ProvedorConexoesComFalhas.normalizar();
+            Thread.sleep(600);
+            Leitura<Cliente> leitura = resiliente.ler(id);
+            assertFalse(leitura.desatualizado());
+            assertEquals(DisjuntorCircuito.Estado.FECHADO, disjuntor.getEstado());
+        }
+    }
+
+    @Test
+    void revalidacaoAtrasadaNaoSobrescreveEscrita() throws InterruptedException {
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch terminou = new CountDownLatch(1);
+        AtomicBoolean travarProxima = new AtomicBoolean();
+        // Lê o cliente e só então trava: a resposta atrasada é o valor de antes da escrita
+        ClienteDAO lento = new ClienteDAO() {
+            @Override
+            public Cliente get(Long id) {
+                Cliente cliente = super.get(id);
+                if (!travarProxima.getAndSet(false)) return cliente;
+                try {
+                    liberar.await();
+                    return cliente;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return cliente;
+                } finally {
+                    terminou.countDown();
+                }
+            }
+        };
+
+        DisjuntorCircuito disjuntor = new DisjuntorCircuito("teste", 5, 5, TimeUnit.SECONDS);
+        try (ClienteRepositoryResiliente resiliente =
+                     new ClienteRepositoryResiliente(lento, Duration.ofMillis(200), disjuntor, 100)) {
+            Cliente cliente = lento.create(formulario("Nome Antigo"));
+            Long id = cliente.getIdCliente();
+            resiliente.ler(id);
+
+            travarProxima.set(true);
+            assertTrue(resiliente.ler(id).desatualizado()); // Passa do orçamento; a consulta segue em segundo plano
+
+            resiliente.update(id, formulario("Nome Novo", cliente.getEmail()));
+            assertEquals("Nome Novo", resiliente.ler(id).valor().getNome());
+
+            liberar.countDown();
+            assertTrue(terminou.await(5, TimeUnit.SECONDS));
+            Thread.sleep(200); // Dá tempo da consulta atrasada tentar guardar o valor antigo
+
+            ProvedorConexoesComFalhas.definirTaxaFalha(1.0);
+            Leitura<Cliente> leitura = resiliente.ler(id);
+            assertTrue(leitura.desatualizado());
+            assertEquals("Nome Novo", leitura.valor().getNome());
+        }
+    }
+
+    @Test
+    void errosDaAplicacaoNaoAbremODisjuntor() {
+        DisjuntorCircuito disjuntor = new DisjuntorCircuito("teste", 2, 5, TimeUnit.SECONDS);
+        try (ClienteRepositoryResiliente resiliente =
+                     new ClienteRepositoryResiliente(dao, Duration.ofSeconds(2), disjuntor, 100)) {
+            Long id = dao.create(formulario("Sempre Disponível")).getIdCliente();
+            resiliente.lerTodos("", 0, 10); // Com valor em cache, o erro também não pode virar leitura desatualizada
+
+            for (int i = 0; i < 5; i++) {
+                assertThrows(IllegalArgumentException.class, () -> resiliente.lerTodos("", -1, 10));
+            }
+            assertEquals(DisjuntorCircuito.Estado.FECHADO, disjuntor.getEstado());
+            assertEquals(0, disjuntor.getMetricas().falhasSeguidas());
+
+            Leitura<Cliente> leitura = resiliente.ler(id);
+            assertFalse(leitura.desatualizado());
+            assertEquals("Sempre Disponível", leitura.valor().getNome());
+        }
+    }
+
+    @Test
+    void alterarValorLidoNaoCorrompeOCache() {
+        ClienteDAO semCache = new ClienteDAO(new CacheConsultasClientes(0)); // As listagens também vão ao banco
+        DisjuntorCircuito disjuntor = new DisjuntorCircuito("teste", 100, 5, TimeUnit.SECONDS);
+        try (ClienteRepositoryResiliente resiliente =
+                     new ClienteRepositoryResiliente(semCache, Duration.ofSeconds(2), disjuntor, 100)) {
+            Long id = semCache.create(formulario("Original")).getIdCliente();
+            resiliente.ler(id).valor().setNome("Alterado pelo chamador");
+            List<Cliente> lista = resiliente.lerTodos("Original", 0, 10).valor();
+            lista.get(0).setNome("Alterado pelo chamador");
+
+            ProvedorConexoesComFalhas.definirTaxaFalha(1.0);
+            for (int i = 0; i < 2; i++) {
+                Leitura<Cliente> leitura = resiliente.ler(id);
+                assertTrue(leitura.desatualizado());
+                assertEquals("Original", leitura.valor().getNome());
+                leitura.valor().setNome("Alterado de novo");
+
+                Leitura<List<Cliente>> listagem = resiliente.lerTodos("Original", 0, 10);
+                assertTrue(listagem.desatualizado());
+                assertEquals(1, listagem.valor().size());
+                assertEquals("Original", listagem.valor().get(0).getNome());
+                listagem.valor().get(0).setNome("Alterado de novo");
+            }
+        }
+    }
+
+    private static ClienteForm formulario(String nome) {
+        return formulario(nome, "resiliente-" + System.nanoTime() + "@exemplo.com");
+    }
+
+    private static ClienteForm formulario(String nome, String email) {
+        ClienteForm form = new ClienteForm();
+        form.setNome(nome);
+        form.setTelefone("11999990000");
+        form.setEmail(email);
+        return form;
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.Service;
+
+import org.example.Service.DeduplicadorClientes.Criterio;
+import org.example.Service.DeduplicadorClientes.Grupo;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Verifica a contagem de duplicados a partir dos conjuntos ligados (union-find) dos grupos.
+ */
+class DeduplicadorClientesTest {
+
+    @Test
+    void cadeiaDeTelefoneEEmailContaComoUmCliente() {
+        // c1 e c2 têm o mesmo telefone; c2 e c3, o mesmo email: os três são um cliente só
+        Map<Long, String[]> dados = Map.of(
+                1L, new String[]{"(11) 98765-4321", "ana@exemplo.com"},
+                2L, new String[]{"11 987654321", "Ana.Souza@Exemplo.com"},
+                3L, new String[]{"21 3333-4444", " ana.souza@exemplo.com"});
+        List<Grupo> grupos = List.of(
+                new Grupo(Criterio.TELEFONE, List.of(1L, 2L)),
+                new Grupo(Criterio.EMAIL, List.of(2L, 3L)));
+
+        assertEquals(2, DeduplicadorClientes.contarDuplicados(grupos, dados));
+    }
+
+    @Test
+    void duplicadoPorTelefoneEEmailContaUmaVez() {
+        Map<Long, String[]> dados = Map.of(
+                1L, new String[]{"11987654321", "ana@exemplo.com"},
+                2L, new String[]{"(11) 98765-4321", "ANA@exemplo.com"});
+        List<Grupo> grupos = List.of(
+                new Grupo(Criterio.TELEFONE, List.of(1L, 2L)),
+                new Grupo(Criterio.EMAIL, List.of(1L, 2L)));
+
+        assertEquals(1, DeduplicadorClientes.contarDuplicados(grupos, dados));
+    }
+
+    @Test
+    void colisaoDeHashNaoContaComoDuplicado() {
+        // Grupo formado pelo hash, mas as chaves normalizadas são diferentes
+        Map<Long, String[]> dados = Map.of(
+                1L, new String[]{"11987654321", "ana@exemplo.com"},
+                2L, new String[]{"21911112222", "bia@exemplo.com"});
+        List<Grupo> grupos = List.of(new Grupo(Criterio.TELEFONE, List.of(1L, 2L)));
+
+        assertEquals(0, DeduplicadorClientes.contarDuplicados(grupos, dados));
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.Service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Verifica que, no SEMI_ABERTO, só a sonda muda o estado do disjuntor, e que uma sonda
+ * liberada sem resultado não deixa o disjuntor esperando por ela.
+ */
+class DisjuntorCircuitoTest {
+
+    @Test
+    void respostaAtrasadaNaoDecideNoLugarDaSonda() throws InterruptedException {
+        DisjuntorCircuito disjuntor = new DisjuntorCircuito("teste", 1, 50, TimeUnit.MILLISECONDS);
+
+        long antiga = disjuntor.permitir(); // Liberada com o circuito fechado, termina só depois da abertura
+        disjuntor.registrarFalha(disjuntor.permitir());
+        assertEquals(DisjuntorCircuito.Estado.ABERTO, disjuntor.getEstado());
+
+        Thread.sleep(100);
+        long sonda = disjuntor.permitir();
+        assertNotEquals(DisjuntorCircuito.RECUSADA, sonda);
+        assertEquals(DisjuntorCircuito.RECUSADA, disjuntor.permitir()); // Uma sonda por vez
+
+        disjuntor.registrarSucesso(antiga);
+        disjuntor.registrarFalha(antiga);
+        assertEquals(DisjuntorCircuito.Estado.SEMI_ABERTO, disjuntor.getEstado());
+
+        disjuntor.registrarSucesso(sonda);
+        assertEquals(DisjuntorCircuito.Estado.FECHADO, disjuntor.getEstado());
+    }
+
+    @Test
+    void sondaLiberadaSemResultadoDaVezAOutraChamada() throws InterruptedException {
+        DisjuntorCircuito disjuntor = new DisjuntorCircuito("teste", 1, 50, TimeUnit.MILLISECONDS);
+        disjuntor.registrarFalha(disjuntor.permitir());
+        Thread.sleep(100);
+
+        long sonda = disjuntor.permitir();
+        disjuntor.liberar(sonda); // Ex: página inválida, nada a dizer sobre o banco
+        assertEquals(DisjuntorCircuito.Estado.SEMI_ABERTO, disjuntor.getEstado());
+
+        long novaSonda = disjuntor.permitir();
+        assertNotEquals(DisjuntorCircuito.RECUSADA, novaSonda);
+        disjuntor.registrarSucesso(novaSonda);
+        assertEquals(DisjuntorCircuito.Estado.FECHADO, disjuntor.getEstado());
+    }
+}
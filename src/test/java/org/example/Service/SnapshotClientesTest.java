@@ -0,0 +1,90 @@
+package org.example.Service;
+
+import org.example.Entity.Form.ClienteForm;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Verifica a ida e volta do snapshot e a recusa de arquivos corrompidos sem alterar a tabela.
+ */
+class SnapshotClientesTest {
+
+    private final ClienteDAO dao = new ClienteDAO();
+    private final SnapshotClientes snapshot = new SnapshotClientes();
+
+    @TempDir
+    Path pasta;
+
+    @Test
+    void restauraOQueFoiExportado() throws IOException {
+        criarClientes();
+        List<String> antes = retrato();
+        Path arquivo = pasta.resolve("clientes.snap");
+
+        SnapshotClientes.Resumo exportado = snapshot.exportar(arquivo);
+        assertEquals(antes.size(), exportado.linhas());
+
+        dao.create(formulario("Depois do Snapshot")); // Some ao restaurar com substituir
+        SnapshotClientes.Resumo restaurado = snapshot.restaurar(arquivo, true);
+
+        assertEquals(antes.size(), restaurado.linhas());
+        assertEquals(antes, retrato());
+    }
+
+    @Test
+    void recusaByteTrocadoSemAlterarATabela() throws IOException {
+        criarClientes();
+        Path arquivo = pasta.resolve("clientes.snap");
+        snapshot.exportar(arquivo);
+
+        byte[] bytes = Files.readAllBytes(arquivo);
+        bytes[16 + 12 + 8] ^= 0x5A; // Dentro dos dados comprimidos do primeiro bloco
+        Files.write(arquivo, bytes);
+
+        List<String> antes = retrato();
+        assertThrows(IOException.class, () -> snapshot.restaurar(arquivo, true));
+        assertEquals(antes, retrato());
+    }
+
+    @Test
+    void recusaArquivoTruncadoSemAlterarATabela() throws IOException {
+        criarClientes();
+        Path arquivo = pasta.resolve("clientes.snap");
+        snapshot.exportar(arquivo);
+
+        byte[] bytes = Files.readAllBytes(arquivo);
+        Files.write(arquivo, Arrays.copyOf(bytes, bytes.length - 4)); // Rodapé incompleto
+
+        List<String> antes = retrato();
+        assertThrows(IOException.class, () -> snapshot.restaurar(arquivo, true));
+        assertEquals(antes, retrato());
+    }
+
+    private void criarClientes() {
+        for (int i = 0; i < 3; i++) dao.create(formulario("Snapshot " + i));
+    }
+
+    // Conteúdo da tabela principal, em ordem de ID
+    private List<String> retrato() {
+        return dao.getAll("").stream()
+                .map(c -> c.getIdCliente() + "|" + c.getVersao() + "|" + c.getNome() + "|" + c.getEmail() + "|" + c.getTelefone())
+                .toList();
+    }
+
+    private static ClienteForm formulario(String nome) {
+        ClienteForm form = new ClienteForm();
+        form.setNome(nome);
+        form.setTelefone("11999990000");
+        form.setEmail("snapshot-" + System.nanoTime() + "@exemplo.com");
+        return form;
+    }
+}